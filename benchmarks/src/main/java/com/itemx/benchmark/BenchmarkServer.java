@@ -0,0 +1,78 @@
+package com.itemx.benchmark;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import com.itemx.ItemX;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * A MockBukkit server with ItemX loaded, shared by the benchmarks that need Bukkit
+ */
+final class BenchmarkServer {
+
+    private final ServerMock server;
+    private final ItemX plugin;
+
+    private BenchmarkServer(ServerMock server, ItemX plugin) {
+        this.server = server;
+        this.plugin = plugin;
+    }
+
+    static BenchmarkServer start() {
+        ServerMock server = MockBukkit.mock();
+        ItemX plugin = MockBukkit.load(ItemX.class);
+        return new BenchmarkServer(server, plugin);
+    }
+
+    /**
+     * Add a synthetic item file to the items directory and reload the catalog
+     */
+    void loadItems(String fileName, int count) throws IOException {
+        File file = new File(plugin.getDataFolder(), "items/" + fileName);
+        file.getParentFile().mkdirs();
+        Files.writeString(file.toPath(), syntheticItems(count), StandardCharsets.UTF_8);
+        if (!plugin.reload()) {
+            throw new IllegalStateException("Benchmark items failed to load");
+        }
+    }
+
+    ServerMock getServer() {
+        return server;
+    }
+
+    ItemX getPlugin() {
+        return plugin;
+    }
+
+    void stop() {
+        MockBukkit.unmock();
+    }
+
+    /**
+     * A catalog of {@code count} items mixing the formats real item files use. Every fourth item has
+     * use disabled, ids are {@code bench_<n>} and NBT ids {@code bench_nbt_<n>}.
+     */
+    static String syntheticItems(int count) {
+        String[] materials = {"DIAMOND_SWORD", "IRON_PICKAXE", "BOW", "NETHERITE_CHESTPLATE", "STICK"};
+        StringBuilder yaml = new StringBuilder(count * 320);
+        for (int i = 0; i < count; i++) {
+            yaml.append("bench_").append(i).append(":\n")
+                    .append("  material: ").append(materials[i % materials.length]).append('\n')
+                    .append("  name: \"<gradient:#ff0000:#0000ff>Bench Item ").append(i).append("</gradient>\"\n")
+                    .append("  lore:\n")
+                    .append("    - \"&7Legacy line ").append(i).append("\"\n")
+                    .append("    - \"&#FF0048Hex line\"\n")
+                    .append("    - \"<rainbow>Rainbow line</rainbow>\"\n")
+                    .append("  unbreakable: ").append(i % 2 == 0).append('\n')
+                    .append("  enchants:\n")
+                    .append("    UNBREAKING: 3\n")
+                    .append("  disable-use: ").append(i % 4 == 0).append('\n')
+                    .append("  nbt-id: bench_nbt_").append(i).append('\n');
+        }
+        return yaml.toString();
+    }
+}
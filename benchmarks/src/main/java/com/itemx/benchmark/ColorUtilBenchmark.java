@@ -0,0 +1,67 @@
+package com.itemx.benchmark;
+
+import com.itemx.util.ColorUtil;
+import net.kyori.adventure.text.Component;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ColorUtil#parseColor} on the input styles item files use, with the component cache off and on
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ColorUtilBenchmark {
+
+    @Param({"legacy", "hex", "gradient", "rainbow"})
+    public String style;
+
+    @Param({"0", "2048"})
+    public int cacheSize;
+
+    private BenchmarkServer server;
+    private ColorUtil colorUtil;
+    private String input;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = BenchmarkServer.start();
+        server.getPlugin().getConfig().set("cache.components.max-size", cacheSize);
+        colorUtil = server.getPlugin().getColorUtil();
+        colorUtil.reload();
+
+        input = switch (style) {
+            case "legacy" -> "&6&lLegacy &eSword &7of &c&nTesting";
+            case "hex" -> "&#FF0048&lP&#FD0249&lU&#FB044A&lN&#F9064C&lC&#F7084D&lH";
+            case "gradient" -> "<gradient:#00ffff:#0000ff>Miner's Pickaxe</gradient>";
+            case "rainbow" -> "<rainbow>Rainbow Blade of the Benchmark</rainbow>";
+            default -> throw new IllegalArgumentException(style);
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Benchmark
+    public Component parseColor() {
+        return colorUtil.parseColor(input);
+    }
+}
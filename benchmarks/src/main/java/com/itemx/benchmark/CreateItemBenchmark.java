@@ -0,0 +1,59 @@
+package com.itemx.benchmark;
+
+import com.itemx.item.ItemDefinition;
+import com.itemx.item.ItemManager;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ItemManager#createItem} with prototype caching on and off
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CreateItemBenchmark {
+
+    @Param({"true", "false"})
+    public boolean prototypes;
+
+    private BenchmarkServer server;
+    private ItemManager itemManager;
+    private ItemDefinition definition;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = BenchmarkServer.start();
+        server.getPlugin().getConfig().set("cache.prototypes", prototypes);
+        server.loadItems("bench.yml", 100);
+        itemManager = server.getPlugin().getItemManager();
+        definition = itemManager.getItemDefinition("bench_1");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Benchmark
+    public ItemStack createItem() {
+        return itemManager.createItem(definition);
+    }
+}
@@ -0,0 +1,79 @@
+package com.itemx.benchmark;
+
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import com.itemx.item.ItemManager;
+import org.bukkit.Material;
+import org.bukkit.block.BlockFace;
+import org.bukkit.event.Event;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The interact listener's lookup, called directly so only ItemX's own work is measured.
+ * {@code vanilla} is a plain stack, {@code custom} an ItemX item that may be used and
+ * {@code disabled} one whose use is cancelled.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InteractLookupBenchmark {
+
+    @Param({"vanilla", "custom", "disabled"})
+    public String held;
+
+    @Param({"1000"})
+    public int items;
+
+    private BenchmarkServer server;
+    private ItemManager itemManager;
+    private PlayerInteractEvent event;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = BenchmarkServer.start();
+        server.loadItems("bench.yml", items);
+        itemManager = server.getPlugin().getItemManager();
+
+        // bench_0 has use disabled, bench_1 does not; see BenchmarkServer.syntheticItems
+        ItemStack item = switch (held) {
+            case "vanilla" -> new ItemStack(Material.DIAMOND_SWORD);
+            case "custom" -> itemManager.createItem(itemManager.getItemDefinition("bench_1"));
+            case "disabled" -> itemManager.createItem(itemManager.getItemDefinition("bench_0"));
+            default -> throw new IllegalArgumentException(held);
+        };
+        PlayerMock player = server.getServer().addPlayer();
+        event = new PlayerInteractEvent(player, Action.RIGHT_CLICK_AIR, item, null, BlockFace.SELF);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Benchmark
+    public boolean onPlayerInteract() {
+        event.setUseItemInHand(Event.Result.DEFAULT);
+        itemManager.onPlayerInteract(event);
+        return event.useItemInHand() == Event.Result.DENY;
+    }
+}
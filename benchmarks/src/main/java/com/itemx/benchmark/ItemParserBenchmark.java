@@ -0,0 +1,69 @@
+package com.itemx.benchmark;
+
+import com.itemx.item.ItemDefinition;
+import com.itemx.item.ItemParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing synthetic item files of increasing size. {@code readFile} is the registry-free part that runs on
+ * parser threads, {@code parseFile} adds resolving against materials and registries.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemParserBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int items;
+
+    private BenchmarkServer server;
+    private ItemParser parser;
+    private File file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = BenchmarkServer.start();
+        parser = new ItemParser(server.getPlugin());
+        file = File.createTempFile("itemx-bench-" + items, ".yml");
+        file.deleteOnExit();
+        Files.writeString(file.toPath(), BenchmarkServer.syntheticItems(items), StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        file.delete();
+        server.stop();
+    }
+
+    @Benchmark
+    public ItemParser.ParsedFile readFile() {
+        return parser.readFile(file, "bench");
+    }
+
+    @Benchmark
+    public Map<String, ItemDefinition> parseFile() {
+        return parser.parseFile(file, "bench");
+    }
+}
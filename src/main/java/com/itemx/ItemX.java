@@ -3,42 +3,58 @@ package com.itemx;
 import com.itemx.command.ItemXCommand;
 import com.itemx.item.ItemManager;
 import com.itemx.util.ColorUtil;
+import com.itemx.util.DebugLogger;
+import com.itemx.util.Messages;
+import com.itemx.util.Metrics;
 import net.kyori.adventure.text.Component;
-import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.command.PluginCommand;
 import org.bukkit.plugin.java.JavaPlugin;
 
-import java.util.logging.Level;
-
 public class ItemX extends JavaPlugin {
     
     private static ItemX instance;
     private ItemManager itemManager;
     private ColorUtil colorUtil;
+    private DebugLogger debugLogger;
+    private Metrics metrics;
+    private Messages messages;
+    private ItemXCommand command;
     
     @Override
     public void onEnable() {
         instance = this;
         
-        // Initialize utilities
-        colorUtil = new ColorUtil(this);
-        
         // Save default config
         saveDefaultConfig();
         
+        // Initialize utilities
+        debugLogger = new DebugLogger(this);
+        metrics = new Metrics(this);
+        colorUtil = new ColorUtil(this);
+        messages = new Messages(this);
+        messages.reload();
+        
         // Initialize item manager
         itemManager = new ItemManager(this);
         
         // Register commands
-        getCommand("itemx").setExecutor(new ItemXCommand(this));
+        PluginCommand pluginCommand = getCommand("itemx");
+        command = new ItemXCommand(this, pluginCommand);
+        pluginCommand.setExecutor(command);
+        getServer().getPluginManager().registerEvents(command, this);
         
         // Load items
         itemManager.loadItems();
+        itemManager.updateWatcher();
         
         getLogger().info("ItemX has been enabled!");
     }
     
     @Override
     public void onDisable() {
+        if (itemManager != null) {
+            itemManager.shutdown();
+        }
         getLogger().info("ItemX has been disabled!");
     }
     
@@ -54,32 +70,43 @@ public class ItemX extends JavaPlugin {
         return colorUtil;
     }
     
-    public void reload() {
-        reloadConfig();
-        itemManager.loadItems();
+    public DebugLogger getDebugLogger() {
+        return debugLogger;
     }
     
-    public void debug(String message) {
-        if (getConfig().getBoolean("debug", false)) {
-            getLogger().log(Level.INFO, "[DEBUG] " + message);
-        }
+    public Metrics getMetrics() {
+        return metrics;
+    }
+    
+    public Messages getMessages() {
+        return messages;
+    }
+    
+    /**
+     * Reload the config and the item catalog
+     * @return False if the items failed to load and the previous catalog was kept
+     */
+    public boolean reload() {
+        reloadConfig();
+        debugLogger.reload();
+        metrics.reload();
+        colorUtil.reload();
+        messages.reload();
+        command.reload();
+        boolean loaded = itemManager.loadItems();
+        itemManager.updateWatcher();
+        return loaded;
     }
     
     public Component getPrefix() {
-        return colorUtil.parseColor(getConfig().getString("prefix", "<gray>[<aqua>ItemX</aqua>]</gray> "));
+        return messages.render("prefix");
     }
     
     public Component getMessage(String key) {
-        return colorUtil.parseColor(getConfig().getString("messages." + key, "<red>Missing message: " + key));
+        return messages.render("messages." + key);
     }
     
     public Component getMessage(String key, String... replacements) {
-        String message = getConfig().getString("messages." + key, "<red>Missing message: " + key);
-        for (int i = 0; i < replacements.length; i += 2) {
-            if (i + 1 < replacements.length) {
-                message = message.replace(replacements[i], replacements[i + 1]);
-            }
-        }
-        return colorUtil.parseColor(message);
+        return messages.render("messages." + key, replacements);
     }
-}
\ No newline at end of file
+}
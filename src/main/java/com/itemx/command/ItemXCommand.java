@@ -1,29 +1,63 @@
 package com.itemx.command;
 
+import com.destroystokyo.paper.event.server.AsyncTabCompleteEvent;
 import com.itemx.ItemX;
+import com.itemx.item.ItemCatalog;
 import com.itemx.item.ItemDefinition;
+import com.itemx.item.ItemManager;
+import com.itemx.util.ColorUtil;
+import com.itemx.util.Metrics;
 import net.kyori.adventure.text.Component;
 import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
+import org.bukkit.command.PluginCommand;
 import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.ItemStack;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
-public class ItemXCommand implements CommandExecutor, TabCompleter {
+public class ItemXCommand implements CommandExecutor, TabCompleter, Listener {
+    
+    private static final List<String> SUBCOMMANDS = List.of("give", "giveall", "get", "reload", "debug", "stats");
     
     private final ItemX plugin;
+    private final Set<String> labels;
+    private volatile int maxCompletions;
+    private volatile int maxGiveAmount;
     
-    public ItemXCommand(ItemX plugin) {
+    public ItemXCommand(ItemX plugin, PluginCommand command) {
         this.plugin = plugin;
+        
+        // Captured up front since the async completer cannot touch the command map
+        Set<String> labels = new HashSet<>();
+        labels.add(command.getName().toLowerCase(Locale.ROOT));
+        for (String alias : command.getAliases()) {
+            labels.add(alias.toLowerCase(Locale.ROOT));
+        }
+        this.labels = labels;
+        reload();
+    }
+    
+    /**
+     * Re-read the tab completion and give settings
+     */
+    public void reload() {
+        maxCompletions = Math.max(1, plugin.getConfig().getInt("tab-complete.max-results", 50));
+        maxGiveAmount = Math.max(1, plugin.getConfig().getInt("give.max-amount", 2304));
     }
     
     @Override
@@ -40,6 +74,12 @@ public class ItemXCommand implements CommandExecutor, TabCompleter {
                 return handleGet(sender, args);
             case "reload":
                 return handleReload(sender);
+            case "giveall":
+                return handleGiveAll(sender, args);
+            case "debug":
+                return handleDebug(sender, args);
+            case "stats":
+                return handleStats(sender, args);
             default:
                 sender.sendMessage(plugin.getPrefix().append(plugin.getMessage("invalid-usage")));
                 return true;
@@ -53,17 +93,30 @@ public class ItemXCommand implements CommandExecutor, TabCompleter {
         }
         
         if (args.length < 2) {
-            sender.sendMessage(plugin.getPrefix().append(Component.text("Usage: /itemx give <item-id> [player]")));
+            sender.sendMessage(plugin.getPrefix().append(Component.text("Usage: /itemx give <item-id> [amount] [player]")));
             return true;
         }
         
         String itemId = args[1];
-        Player target;
+        int amount = 1;
+        int playerArg = 2;
         
-        if (args.length >= 3) {
-            target = Bukkit.getPlayer(args[2]);
+        // The amount is optional, so a numeric third argument is the amount and anything else the player
+        if (args.length >= 3 && isInteger(args[2])) {
+            amount = Integer.parseInt(args[2]);
+            playerArg = 3;
+            if (amount < 1 || amount > maxGiveAmount) {
+                sender.sendMessage(plugin.getPrefix().append(plugin.getMessage("invalid-amount",
+                        "%amount%", args[2], "%max%", String.valueOf(maxGiveAmount))));
+                return true;
+            }
+        }
+        
+        Player target;
+        if (args.length > playerArg) {
+            target = Bukkit.getPlayer(args[playerArg]);
             if (target == null) {
-                sender.sendMessage(plugin.getPrefix().append(plugin.getMessage("player-not-found", "%player%", args[2])));
+                sender.sendMessage(plugin.getPrefix().append(plugin.getMessage("player-not-found", "%player%", args[playerArg])));
                 return true;
             }
         } else {
@@ -80,19 +133,80 @@ public class ItemXCommand implements CommandExecutor, TabCompleter {
             return true;
         }
         
-        ItemStack item = plugin.getItemManager().createItem(definition);
-        target.getInventory().addItem(item);
+        plugin.getItemManager().giveItem(target, definition, amount, true);
         
-        Component message = plugin.getColorUtil().parseColor(
-            plugin.getConfig().getString("give-message", "<green>Gave <yellow>%item%</yellow> to <blue>%player%</blue>")
-                .replace("%item%", itemId)
-                .replace("%player%", target.getName())
-        );
+        Component message = plugin.getMessages().render("give-message",
+                "%item%", itemId, "%amount%", String.valueOf(amount), "%player%", target.getName());
         
         sender.sendMessage(plugin.getPrefix().append(message));
         return true;
     }
     
+    private boolean handleGiveAll(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("itemx.giveall")) {
+            sender.sendMessage(plugin.getPrefix().append(plugin.getMessage("no-permission")));
+            return true;
+        }
+        
+        if (args.length < 2) {
+            sender.sendMessage(plugin.getPrefix().append(Component.text("Usage: /itemx giveall <item-id> [amount]")));
+            return true;
+        }
+        
+        String itemId = args[1];
+        ItemDefinition definition = plugin.getItemManager().getItemDefinition(itemId);
+        if (definition == null) {
+            sender.sendMessage(plugin.getPrefix().append(plugin.getMessage("item-not-found", "%item%", itemId)));
+            return true;
+        }
+        
+        int amount = 1;
+        if (args.length >= 3) {
+            amount = isInteger(args[2]) ? Integer.parseInt(args[2]) : 0;
+            if (amount < 1 || amount > maxGiveAmount) {
+                sender.sendMessage(plugin.getPrefix().append(plugin.getMessage("invalid-amount",
+                        "%amount%", args[2], "%max%", String.valueOf(maxGiveAmount))));
+                return true;
+            }
+        }
+        
+        List<Player> players = new ArrayList<>(Bukkit.getOnlinePlayers());
+        String amountText = String.valueOf(amount);
+        sender.sendMessage(plugin.getPrefix().append(plugin.getMessage("giveall-started",
+                "%amount%", amountText, "%item%", itemId, "%count%", String.valueOf(players.size()))));
+        
+        // Players may log off while the job runs, so only report back while the sender is still around
+        plugin.getItemManager().getDistributionScheduler().submit(players, Map.of(definition, amount),
+                job -> {
+                    if (isReachable(sender)) {
+                        sender.sendMessage(plugin.getPrefix().append(plugin.getMessage("giveall-progress",
+                                "%done%", String.valueOf(job.getProcessed()), "%total%", String.valueOf(job.getTotal()))));
+                    }
+                },
+                job -> {
+                    if (isReachable(sender)) {
+                        sender.sendMessage(plugin.getPrefix().append(plugin.getMessage("giveall-complete",
+                                "%amount%", amountText, "%item%", itemId,
+                                "%delivered%", String.valueOf(job.getDelivered()),
+                                "%skipped%", String.valueOf(job.getSkipped()),
+                                "%time%", String.valueOf(job.getElapsedMillis()))));
+                    }
+                });
+        return true;
+    }
+    
+    private static boolean isReachable(CommandSender sender) {
+        return !(sender instanceof Player) || ((Player) sender).isOnline();
+    }
+    
+    private static boolean isInteger(String value) {
+        if (value.isEmpty() || value.length() > 9) return false;
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isDigit(value.charAt(i))) return false;
+        }
+        return true;
+    }
+    
     private boolean handleGet(CommandSender sender, String[] args) {
         if (!(sender instanceof Player)) {
             sender.sendMessage(plugin.getPrefix().append(Component.text("Only players can use the get command.")));
@@ -129,38 +243,31 @@ public class ItemXCommand implements CommandExecutor, TabCompleter {
             return true;
         }
         
-        ItemStack item = plugin.getItemManager().createItem(definition);
-        player.getInventory().addItem(item);
+        plugin.getItemManager().giveItem(player, definition, 1, true);
         
-        Component message = plugin.getColorUtil().parseColor(
-            plugin.getConfig().getString("get-message", "<green>You received <yellow>%item%</yellow>")
-                .replace("%item%", itemId)
-        );
+        Component message = plugin.getMessages().render("get-message", "%item%", itemId);
         
         player.sendMessage(plugin.getPrefix().append(message));
         return true;
     }
     
     private boolean handleGetCategory(Player player, String categoryName) {
-        Set<ItemDefinition> categoryItems = plugin.getItemManager().getItemsByCategory(categoryName);
+        List<ItemDefinition> categoryItems = plugin.getItemManager().getItemsInCategoryTree(categoryName);
         
         if (categoryItems.isEmpty()) {
             player.sendMessage(plugin.getPrefix().append(Component.text("No items found in category: " + categoryName)));
             return true;
         }
         
-        int itemsGiven = 0;
+        Map<ItemDefinition, Integer> amounts = new LinkedHashMap<>();
         for (ItemDefinition definition : categoryItems) {
-            ItemStack item = plugin.getItemManager().createItem(definition);
-            player.getInventory().addItem(item);
-            itemsGiven++;
+            amounts.put(definition, 1);
         }
+        plugin.getItemManager().giveItems(player, amounts, true);
+        int itemsGiven = amounts.size();
         
-        Component message = plugin.getColorUtil().parseColor(
-            plugin.getConfig().getString("get-category-message", "<green>You received <yellow>%count%</yellow> items from category <aqua>%category%</aqua>")
-                .replace("%count%", String.valueOf(itemsGiven))
-                .replace("%category%", categoryName)
-        );
+        Component message = plugin.getMessages().render("get-category-message",
+                "%count%", String.valueOf(itemsGiven), "%category%", categoryName);
         
         player.sendMessage(plugin.getPrefix().append(message));
         return true;
@@ -184,25 +291,31 @@ public class ItemXCommand implements CommandExecutor, TabCompleter {
     
     @Override
     public @Nullable List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
-        List<String> completions = new ArrayList<>();
+        List<String> completions = completeFromCatalog(args);
+        if (completions != null) {
+            return completions;
+        }
         
+        completions = new ArrayList<>();
+        String prefix = args.length > 0 ? args[args.length - 1].toLowerCase(Locale.ROOT) : "";
         if (args.length == 1) {
-            completions.addAll(Arrays.asList("give", "get", "reload"));
-        } else if (args.length == 2) {
-            if (args[0].equalsIgnoreCase("give")) {
-                completions.addAll(plugin.getItemManager().getItemIds());
-            } else if (args[0].equalsIgnoreCase("get")) {
-                // Add individual item IDs
-                completions.addAll(plugin.getItemManager().getItemIds());
-                // Add category options
-                for (String category : plugin.getItemManager().getCategories()) {
-                    completions.add("category:" + category);
+            for (String subcommand : SUBCOMMANDS) {
+                if (subcommand.startsWith(prefix)) {
+                    completions.add(subcommand);
                 }
             }
-        } else if (args.length == 3) {
+        } else if (args.length == 2) {
+            if (args[0].equalsIgnoreCase("debug") && "dump".startsWith(prefix)) {
+                completions.add("dump");
+            } else if (args[0].equalsIgnoreCase("stats") && "reset".startsWith(prefix)) {
+                completions.add("reset");
+            }
+        } else if (args.length == 3 || (args.length == 4 && isInteger(args[2]))) {
             if (args[0].equalsIgnoreCase("give")) {
                 for (Player player : Bukkit.getOnlinePlayers()) {
-                    completions.add(player.getName());
+                    if (player.getName().toLowerCase(Locale.ROOT).startsWith(prefix)) {
+                        completions.add(player.getName());
+                    }
                 }
             }
         }
@@ -210,14 +323,148 @@ public class ItemXCommand implements CommandExecutor, TabCompleter {
         return completions;
     }
     
+    /**
+     * Complete /itemx on the async tab complete thread when the argument comes from the item catalog,
+     * so ids are matched against the current snapshot without waiting for the main thread.
+     * Anything else, like player names, is left to the regular synchronous completer.
+     */
+    @EventHandler(ignoreCancelled = true)
+    public void onAsyncTabComplete(AsyncTabCompleteEvent event) {
+        if (event.isHandled() || !event.isCommand()) return;
+        
+        String buffer = event.getBuffer();
+        int start = buffer.startsWith("/") ? 1 : 0;
+        int space = buffer.indexOf(' ', start);
+        if (space < 0) return;
+        
+        String label = buffer.substring(start, space).toLowerCase(Locale.ROOT);
+        if (label.startsWith("itemx:")) {
+            label = label.substring("itemx:".length());
+        }
+        if (!labels.contains(label) || !event.getSender().hasPermission("itemx.use")) return;
+        
+        String[] args = buffer.substring(space + 1).split(" ", -1);
+        List<String> completions = completeFromCatalog(args);
+        if (completions != null) {
+            event.setCompletions(completions);
+            event.setHandled(true);
+        }
+    }
+    
+    /**
+     * Completions for arguments backed by the item catalog, or null if the argument is not one of them
+     */
+    private List<String> completeFromCatalog(String[] args) {
+        if (args.length != 2) {
+            return null;
+        }
+        
+        ItemCatalog catalog = plugin.getItemManager().getCatalog();
+        if (args[0].equalsIgnoreCase("give") || args[0].equalsIgnoreCase("giveall")) {
+            return catalog.getIdCompletions().complete(args[1], maxCompletions);
+        } else if (args[0].equalsIgnoreCase("get")) {
+            return catalog.getItemOrCategoryCompletions().complete(args[1], maxCompletions);
+        }
+        return null;
+    }
+    
     private boolean handleReload(CommandSender sender) {
         if (!sender.hasPermission("itemx.reload")) {
             sender.sendMessage(plugin.getPrefix().append(plugin.getMessage("no-permission")));
             return true;
         }
         
-        plugin.reload();
-        sender.sendMessage(plugin.getPrefix().append(plugin.getMessage("reload-success")));
+        // Problems lazily loaded items only found once they were used belong to the items being replaced
+        int deferredWarnings = plugin.getItemManager().reportDeferredWarnings().size();
+        if (plugin.reload()) {
+            sender.sendMessage(plugin.getPrefix().append(plugin.getMessage("reload-success")));
+        } else {
+            sender.sendMessage(plugin.getPrefix().append(plugin.getMessage("reload-failed")));
+        }
+        if (deferredWarnings > 0) {
+            sender.sendMessage(plugin.getPrefix().append(plugin.getMessage("reload-deferred-warnings",
+                    "%count%", String.valueOf(deferredWarnings))));
+        }
+        return true;
+    }
+    
+    private boolean handleDebug(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("itemx.debug")) {
+            sender.sendMessage(plugin.getPrefix().append(plugin.getMessage("no-permission")));
+            return true;
+        }
+        
+        if (args.length < 2 || !args[1].equalsIgnoreCase("dump")) {
+            sender.sendMessage(plugin.getPrefix().append(Component.text("Usage: /itemx debug dump")));
+            return true;
+        }
+        
+        try {
+            int count = plugin.getDebugLogger().getBufferedCount();
+            File file = plugin.getDebugLogger().dump();
+            if (file == null) {
+                sender.sendMessage(plugin.getPrefix().append(plugin.getMessage("debug-buffer-disabled")));
+                return true;
+            }
+            sender.sendMessage(plugin.getPrefix().append(plugin.getMessage("debug-dumped",
+                    "%count%", String.valueOf(count), "%file%", file.getName())));
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to write debug dump: " + e.getMessage());
+            sender.sendMessage(plugin.getPrefix().append(plugin.getMessage("debug-dump-failed", "%error%", e.getMessage())));
+        }
+        return true;
+    }
+    
+    private boolean handleStats(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("itemx.stats")) {
+            sender.sendMessage(plugin.getPrefix().append(plugin.getMessage("no-permission")));
+            return true;
+        }
+        
+        Metrics metrics = plugin.getMetrics();
+        if (args.length >= 2 && args[1].equalsIgnoreCase("reset")) {
+            metrics.reset();
+            sender.sendMessage(plugin.getPrefix().append(plugin.getMessage("stats-reset")));
+            return true;
+        }
+        
+        if (!metrics.isEnabled()) {
+            sender.sendMessage(plugin.getPrefix().append(plugin.getMessage("stats-disabled")));
+        }
+        
+        sender.sendMessage(plugin.getPrefix().append(plugin.getMessage("stats-header")));
+        for (Metrics.Snapshot snapshot : metrics.snapshotAll().values()) {
+            long allocated = snapshot.getAllocatedBytesPerCall();
+            sender.sendMessage(plugin.getMessage("stats-line",
+                    "%name%", snapshot.getTimer().getDisplayName(),
+                    "%calls%", String.valueOf(snapshot.getCount()),
+                    "%p50%", formatNanos(snapshot.getP50Nanos()),
+                    "%p99%", formatNanos(snapshot.getP99Nanos()),
+                    "%max%", formatNanos(snapshot.getMaxNanos()),
+                    "%alloc%", allocated >= 0 ? formatBytes(allocated) : "n/a"));
+        }
+        
+        ItemManager itemManager = plugin.getItemManager();
+        ColorUtil colorUtil = plugin.getColorUtil();
+        sender.sendMessage(plugin.getMessage("stats-caches",
+                "%prototype_hits%", String.valueOf(itemManager.getPrototypeHits()),
+                "%prototype_misses%", String.valueOf(itemManager.getPrototypeMisses()),
+                "%component_hits%", String.valueOf(colorUtil.getCacheHits()),
+                "%component_misses%", String.valueOf(colorUtil.getCacheMisses()),
+                "%component_size%", String.valueOf(colorUtil.getCacheSize())));
         return true;
     }
-}
\ No newline at end of file
+    
+    private static String formatNanos(long nanos) {
+        if (nanos < 1_000L) return nanos + "ns";
+        if (nanos < 1_000_000L) return String.format(Locale.ROOT, "%.1fµs", nanos / 1_000.0);
+        if (nanos < 1_000_000_000L) return String.format(Locale.ROOT, "%.1fms", nanos / 1_000_000.0);
+        return String.format(Locale.ROOT, "%.2fs", nanos / 1_000_000_000.0);
+    }
+    
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024L) return bytes + " B";
+        if (bytes < 1024L * 1024L) return String.format(Locale.ROOT, "%.1f KB", bytes / 1024.0);
+        return String.format(Locale.ROOT, "%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+}
@@ -0,0 +1,171 @@
+package com.itemx.item;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Category tree built once per catalog. Categories are paths like {@code tools/pickaxes}; every
+ * ancestor path is a node too, so {@code weapons} answers for {@code weapons/bows} as a subtree.
+ * Member lists are precomputed and immutable, so queries cost O(result). Items outside any category,
+ * in the root of the items directory, are answered for a null or empty category.
+ */
+public final class CategoryIndex {
+
+    private final Map<String, Node> nodes;
+    private final Set<String> categories;
+    private final Node root;
+
+    CategoryIndex(Collection<ItemDefinition> definitions) {
+        Map<String, NodeBuilder> builders = new TreeMap<>();
+        NodeBuilder rootBuilder = new NodeBuilder("");
+        for (ItemDefinition definition : definitions) {
+            String category = definition.getCategory();
+            if (category == null || category.isEmpty()) {
+                rootBuilder.members.add(definition);
+                continue;
+            }
+
+            builders.computeIfAbsent(category, NodeBuilder::new).members.add(definition);
+            // Register the definition with the category and every ancestor of it
+            String path = category;
+            while (true) {
+                NodeBuilder node = builders.computeIfAbsent(path, NodeBuilder::new);
+                node.subtree.add(definition);
+                int slash = path.lastIndexOf('/');
+                if (slash < 0) break;
+                String parent = path.substring(0, slash);
+                builders.computeIfAbsent(parent, NodeBuilder::new).children.add(path);
+                path = parent;
+            }
+        }
+
+        Map<String, Node> built = new TreeMap<>();
+        for (NodeBuilder builder : builders.values()) {
+            built.put(builder.path, builder.build());
+        }
+        this.nodes = Collections.unmodifiableMap(built);
+        this.categories = Collections.unmodifiableSet(built.keySet());
+        this.root = rootBuilder.build();
+    }
+
+    /**
+     * Every category path, including parents that only hold subcategories, in sorted order
+     */
+    public Set<String> getCategories() {
+        return categories;
+    }
+
+    public boolean contains(String category) {
+        return category != null && nodes.containsKey(category);
+    }
+
+    /**
+     * Items directly in the category, sorted by id
+     */
+    public List<ItemDefinition> getItems(String category) {
+        Node node = node(category);
+        return node != null ? node.members : Collections.emptyList();
+    }
+
+    /**
+     * The same items as {@link #getItems(String)} as a read-only set, iterating in id order
+     */
+    public Set<ItemDefinition> getItemSet(String category) {
+        Node node = node(category);
+        return node != null ? node.memberSet : Collections.emptySet();
+    }
+
+    /**
+     * Items in the category and all of its subcategories, sorted by id
+     */
+    public List<ItemDefinition> getSubtreeItems(String category) {
+        Node node = node(category);
+        return node != null ? node.subtree : Collections.emptyList();
+    }
+
+    /**
+     * Direct subcategory paths of the category, sorted
+     */
+    public List<String> getChildren(String category) {
+        Node node = node(category);
+        return node != null ? node.children : Collections.emptyList();
+    }
+
+    public int getCount(String category) {
+        return getItems(category).size();
+    }
+
+    public int getSubtreeCount(String category) {
+        return getSubtreeItems(category).size();
+    }
+
+    private Node node(String category) {
+        return category == null || category.isEmpty() ? root : nodes.get(category);
+    }
+
+    private static final class Node {
+        private final List<ItemDefinition> members;
+        private final Set<ItemDefinition> memberSet;
+        private final List<ItemDefinition> subtree;
+        private final List<String> children;
+
+        private Node(List<ItemDefinition> members, List<ItemDefinition> subtree, List<String> children) {
+            this.members = members;
+            this.memberSet = new ListSet(members);
+            this.subtree = subtree;
+            this.children = children;
+        }
+    }
+
+    /**
+     * Read-only set view over a list of distinct definitions, so the sorted member list is not copied
+     */
+    private static final class ListSet extends AbstractSet<ItemDefinition> {
+        private final List<ItemDefinition> items;
+
+        private ListSet(List<ItemDefinition> items) {
+            this.items = items;
+        }
+
+        @Override
+        public Iterator<ItemDefinition> iterator() {
+            return items.iterator();
+        }
+
+        @Override
+        public int size() {
+            return items.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return items.contains(o);
+        }
+    }
+
+    private static final class NodeBuilder {
+        private final String path;
+        private final List<ItemDefinition> members = new ArrayList<>();
+        private final List<ItemDefinition> subtree = new ArrayList<>();
+        private final Set<String> children = new TreeSet<>();
+
+        private NodeBuilder(String path) {
+            this.path = path;
+        }
+
+        private Node build() {
+            members.sort(Comparator.comparing(ItemDefinition::getId));
+            subtree.sort(Comparator.comparing(ItemDefinition::getId));
+            return new Node(List.copyOf(members), List.copyOf(subtree), List.copyOf(children));
+        }
+    }
+}
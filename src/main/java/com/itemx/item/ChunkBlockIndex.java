@@ -0,0 +1,208 @@
+package com.itemx.item;
+
+import org.bukkit.Material;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The placed ItemX blocks of one chunk: an open-addressing map from packed block position to an entry
+ * in a small per-chunk palette of (NBT id, block type) pairs.
+ * <p>
+ * Positions pack as {@code (y - minY) << 8 | z << 4 | x} in 20 bits. Stored in the chunk, each block is one
+ * int holding its position and its 12-bit palette index, next to the palette as two string lists.
+ */
+final class ChunkBlockIndex {
+
+    static final int MAX_PALETTE = 1 << 12;
+    private static final int EMPTY = -1;
+
+    private int[] positions;
+    private short[] entries;
+    private int size;
+    private final List<String> nbtIds = new ArrayList<>();
+    private final List<Material> types = new ArrayList<>();
+    private final Map<String, Integer> paletteIndex = new HashMap<>();
+    private boolean dirty;
+
+    ChunkBlockIndex(int expected) {
+        int capacity = 16;
+        while (capacity * 3 < expected * 4) {
+            capacity <<= 1;
+        }
+        positions = new int[capacity];
+        entries = new short[capacity];
+        Arrays.fill(positions, EMPTY);
+    }
+
+    static int pack(int x, int y, int z, int minY) {
+        return (y - minY) << 8 | (z & 15) << 4 | (x & 15);
+    }
+
+    /**
+     * Rebuild an index from what was stored in the chunk. Entries with an out of range palette index are dropped.
+     */
+    static ChunkBlockIndex load(int[] packed, List<String> nbtIds, List<String> types) {
+        ChunkBlockIndex index = new ChunkBlockIndex(packed.length);
+        int paletteSize = Math.min(nbtIds.size(), types.size());
+        for (int i = 0; i < paletteSize; i++) {
+            index.nbtIds.add(nbtIds.get(i));
+            index.types.add(Material.matchMaterial(types.get(i)));
+            index.paletteIndex.put(nbtIds.get(i) + '\0' + types.get(i), i);
+        }
+        for (int value : packed) {
+            int entry = value & (MAX_PALETTE - 1);
+            if (entry < paletteSize) {
+                index.put(value >>> 12, entry);
+            }
+        }
+        return index;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * The NBT id of the item placed at a position, if it is still the recorded block type
+     */
+    String get(int position, Material type) {
+        int slot = find(position);
+        if (slot < 0) return null;
+        int entry = entries[slot];
+        return types.get(entry) == type ? nbtIds.get(entry) : null;
+    }
+
+    boolean contains(int position) {
+        return find(position) >= 0;
+    }
+
+    /**
+     * Record a placed block
+     * @return False if the chunk already holds as many distinct items as its palette can
+     */
+    boolean put(int position, String nbtId, Material type) {
+        String key = nbtId + '\0' + type.name();
+        Integer entry = paletteIndex.get(key);
+        if (entry == null) {
+            if (nbtIds.size() >= MAX_PALETTE) return false;
+            entry = nbtIds.size();
+            nbtIds.add(nbtId);
+            types.add(type);
+            paletteIndex.put(key, entry);
+        }
+        put(position, entry);
+        dirty = true;
+        return true;
+    }
+
+    /**
+     * Forget a block
+     * @return The NBT id that was recorded there, or null
+     */
+    String remove(int position) {
+        int slot = find(position);
+        if (slot < 0) return null;
+        String nbtId = nbtIds.get(entries[slot]);
+
+        // Backward shift deletion keeps probe chains intact without tombstones
+        int mask = positions.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (positions[next] != EMPTY) {
+            int home = hash(positions[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                positions[hole] = positions[next];
+                entries[hole] = entries[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        positions[hole] = EMPTY;
+        size--;
+        dirty = true;
+        return nbtId;
+    }
+
+    /**
+     * Pack the index for storage, leaving out palette entries no block uses any more, and mark it clean
+     * @return The packed blocks; the palette is written into the given lists
+     */
+    int[] save(List<String> nbtIdsOut, List<String> typesOut) {
+        int[] remap = new int[nbtIds.size()];
+        Arrays.fill(remap, -1);
+        int[] packed = new int[size];
+        int count = 0;
+        for (int slot = 0; slot < positions.length; slot++) {
+            int entry = positions[slot] == EMPTY ? -1 : entries[slot];
+            // Blocks of a type this server no longer knows can never match again
+            if (entry < 0 || types.get(entry) == null) continue;
+            if (remap[entry] < 0) {
+                remap[entry] = nbtIdsOut.size();
+                nbtIdsOut.add(nbtIds.get(entry));
+                typesOut.add(types.get(entry).name());
+            }
+            packed[count++] = positions[slot] << 12 | remap[entry];
+        }
+        dirty = false;
+        return count == packed.length ? packed : Arrays.copyOf(packed, count);
+    }
+
+    private void put(int position, int entry) {
+        if ((size + 1) * 4 > positions.length * 3) {
+            resize(positions.length << 1);
+        }
+        int mask = positions.length - 1;
+        int slot = hash(position) & mask;
+        while (positions[slot] != EMPTY) {
+            if (positions[slot] == position) {
+                entries[slot] = (short) entry;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        positions[slot] = position;
+        entries[slot] = (short) entry;
+        size++;
+    }
+
+    private int find(int position) {
+        int mask = positions.length - 1;
+        int slot = hash(position) & mask;
+        while (positions[slot] != EMPTY) {
+            if (positions[slot] == position) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void resize(int capacity) {
+        int[] oldPositions = positions;
+        short[] oldEntries = entries;
+        positions = new int[capacity];
+        entries = new short[capacity];
+        Arrays.fill(positions, EMPTY);
+        size = 0;
+        for (int slot = 0; slot < oldPositions.length; slot++) {
+            if (oldPositions[slot] != EMPTY) {
+                put(oldPositions[slot], oldEntries[slot]);
+            }
+        }
+    }
+
+    private static int hash(int position) {
+        int h = position * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
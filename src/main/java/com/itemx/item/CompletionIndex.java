@@ -0,0 +1,69 @@
+package com.itemx.item;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Sorted, case-insensitive prefix index over a fixed set of strings, built once per catalog.
+ * A lookup binary searches the start of the prefix range and copies at most the requested
+ * number of matches, so completing against thousands of ids stays cheap on every keystroke.
+ */
+public final class CompletionIndex {
+
+    private final String[] keys;
+    private final String[] values;
+
+    CompletionIndex(Collection<String> entries) {
+        // Sort by the lowercased key itself so the binary search and the stored order agree
+        String[] sorted = entries.toArray(new String[0]);
+        Arrays.sort(sorted, Comparator.comparing((String value) -> value.toLowerCase(Locale.ROOT))
+                .thenComparing(Comparator.naturalOrder()));
+        this.values = sorted;
+        this.keys = new String[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            keys[i] = sorted[i].toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Entries starting with the given prefix, ignoring case, in sorted order
+     * @param prefix The typed text, may be empty
+     * @param limit The maximum number of results
+     */
+    public List<String> complete(String prefix, int limit) {
+        if (limit <= 0 || values.length == 0) {
+            return Collections.emptyList();
+        }
+
+        String key = prefix.toLowerCase(Locale.ROOT);
+        int index = lowerBound(key);
+        List<String> result = new ArrayList<>(Math.min(limit, values.length - index));
+        while (index < keys.length && result.size() < limit && keys[index].startsWith(key)) {
+            result.add(values[index++]);
+        }
+        return result;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,240 @@
+package com.itemx.item;
+
+import com.itemx.ItemX;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-player item use cooldowns. Each player who uses a cooldown item gets a slot, and each definition
+ * with a cooldown has an ordinal in the catalog, so a cooldown is one {@code long} deadline in a
+ * {@code [slot][ordinal]} table. Expired deadlines are simply treated as ready rather than removed,
+ * so checking and starting a cooldown never allocates. A player's slot is released when they quit.
+ * <p>
+ * Main thread only.
+ */
+public class CooldownTracker implements Listener {
+
+    private static final long[] NO_COOLDOWNS = new long[0];
+
+    private final ItemX plugin;
+    private final ItemManager itemManager;
+    private final Map<UUID, Integer> slots = new HashMap<>();
+    private Player[] players = new Player[16];
+    // System.nanoTime() deadlines by slot and cooldown ordinal; 0 means no cooldown
+    private long[][] deadlines = new long[16][];
+    // The cooldown ordinal shown on each slot's action bar, or -1
+    private int[] displayed = new int[16];
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int slotCount;
+    private List<String> nbtIds = Collections.emptyList();
+    private boolean actionBar;
+    private BukkitTask displayTask;
+
+    public CooldownTracker(ItemX plugin, ItemManager itemManager) {
+        this.plugin = plugin;
+        this.itemManager = itemManager;
+        Arrays.fill(displayed, -1);
+        reload();
+    }
+
+    public void reload() {
+        actionBar = plugin.getConfig().getBoolean("cooldowns.action-bar", true);
+    }
+
+    /**
+     * Move running cooldowns over to the ordinals of a newly published catalog. Definitions that lost
+     * their cooldown drop theirs; everything else keeps its deadline.
+     */
+    public void apply(ItemCatalog catalog) {
+        List<String> next = catalog.getCooldownNbtIds();
+        if (next.equals(nbtIds)) return;
+
+        Map<String, Integer> ordinals = new HashMap<>(next.size() * 2);
+        for (int i = 0; i < next.size(); i++) {
+            ordinals.put(next.get(i), i);
+        }
+        int[] moved = new int[nbtIds.size()];
+        for (int i = 0; i < moved.length; i++) {
+            moved[i] = ordinals.getOrDefault(nbtIds.get(i), -1);
+        }
+
+        for (int slot = 0; slot < slotCount; slot++) {
+            long[] row = deadlines[slot];
+            if (row == null) continue;
+            long[] remapped = next.isEmpty() ? NO_COOLDOWNS : new long[next.size()];
+            for (int i = 0; i < Math.min(row.length, moved.length); i++) {
+                if (moved[i] >= 0) {
+                    remapped[moved[i]] = row[i];
+                }
+            }
+            deadlines[slot] = remapped;
+            if (displayed[slot] >= 0) {
+                displayed[slot] = displayed[slot] < moved.length ? moved[displayed[slot]] : -1;
+            }
+        }
+        nbtIds = next;
+    }
+
+    /**
+     * Start the cooldown of an item for a player, unless it is already running
+     * @param ordinal The definition's {@link ItemCatalog#getCooldownOrdinal cooldown ordinal}
+     * @return 0 if the item may be used and its cooldown was started, otherwise the milliseconds left
+     */
+    public long tryUse(Player player, ItemDefinition definition, int ordinal) {
+        if (ordinal < 0 || ordinal >= nbtIds.size()) return 0;
+
+        int slot = slotOf(player);
+        long[] row = deadlines[slot];
+
+        long now = System.nanoTime();
+        long left = row[ordinal] - now;
+        if (row[ordinal] != 0 && left > 0) {
+            if (actionBar) {
+                showCountdown(slot, ordinal, left);
+            }
+            return Math.max(1, left / 1_000_000L);
+        }
+        row[ordinal] = now + definition.getCooldownMillis() * 1_000_000L;
+        return 0;
+    }
+
+    /**
+     * Milliseconds until a player may use an item again, 0 if they may now
+     */
+    public long getRemainingMillis(Player player, ItemDefinition definition) {
+        int ordinal = itemManager.getCatalog().getCooldownOrdinal(definition);
+        Integer slot = slots.get(player.getUniqueId());
+        if (ordinal < 0 || slot == null) return 0;
+
+        long[] row = deadlines[slot];
+        if (ordinal >= row.length || row[ordinal] == 0) return 0;
+        long left = row[ordinal] - System.nanoTime();
+        return left > 0 ? Math.max(1, left / 1_000_000L) : 0;
+    }
+
+    /**
+     * Clear a player's cooldown for an item
+     */
+    public void reset(Player player, ItemDefinition definition) {
+        int ordinal = itemManager.getCatalog().getCooldownOrdinal(definition);
+        Integer slot = slots.get(player.getUniqueId());
+        if (ordinal < 0 || slot == null || ordinal >= deadlines[slot].length) return;
+        deadlines[slot][ordinal] = 0;
+    }
+
+    public int getTrackedPlayers() {
+        return slots.size();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        Integer slot = slots.remove(event.getPlayer().getUniqueId());
+        if (slot == null) return;
+
+        players[slot] = null;
+        Arrays.fill(deadlines[slot], 0);
+        displayed[slot] = -1;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * Forget every player and stop the countdown display
+     */
+    public void shutdown() {
+        if (displayTask != null) {
+            displayTask.cancel();
+            displayTask = null;
+        }
+        slots.clear();
+        Arrays.fill(players, null);
+        Arrays.fill(deadlines, null);
+        Arrays.fill(displayed, -1);
+        freeCount = 0;
+        slotCount = 0;
+    }
+
+    private int slotOf(Player player) {
+        Integer existing = slots.get(player.getUniqueId());
+        if (existing != null) {
+            return existing;
+        }
+
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (slotCount == players.length) {
+                int size = slotCount * 2;
+                players = Arrays.copyOf(players, size);
+                deadlines = Arrays.copyOf(deadlines, size);
+                displayed = Arrays.copyOf(displayed, size);
+                Arrays.fill(displayed, slotCount, size, -1);
+            }
+            slot = slotCount++;
+        }
+        players[slot] = player;
+        if (deadlines[slot] == null || deadlines[slot].length != nbtIds.size()) {
+            deadlines[slot] = nbtIds.isEmpty() ? NO_COOLDOWNS : new long[nbtIds.size()];
+        }
+        slots.put(player.getUniqueId(), slot);
+        return slot;
+    }
+
+    private void showCountdown(int slot, int ordinal, long leftNanos) {
+        displayed[slot] = ordinal;
+        sendCountdown(players[slot], ordinal, leftNanos);
+        if (displayTask == null) {
+            displayTask = Bukkit.getScheduler().runTaskTimer(plugin, this::updateCountdowns, 10L, 10L);
+        }
+    }
+
+    /**
+     * Refresh the action bar of every player watching a countdown, clearing it once the cooldown is over
+     */
+    private void updateCountdowns() {
+        long now = System.nanoTime();
+        boolean active = false;
+        for (int slot = 0; slot < slotCount; slot++) {
+            int ordinal = displayed[slot];
+            if (ordinal < 0) continue;
+
+            long left = deadlines[slot][ordinal] - now;
+            if (left > 0) {
+                sendCountdown(players[slot], ordinal, left);
+                active = true;
+            } else {
+                displayed[slot] = -1;
+                players[slot].sendActionBar(Component.empty());
+            }
+        }
+        if (!active) {
+            displayTask.cancel();
+            displayTask = null;
+        }
+    }
+
+    private void sendCountdown(Player player, int ordinal, long leftNanos) {
+        ItemDefinition definition = itemManager.getCatalog().getDefinitionByNbtId(nbtIds.get(ordinal));
+        player.sendActionBar(plugin.getMessages().render("messages.cooldown",
+                "%item%", definition != null ? definition.getId() : nbtIds.get(ordinal),
+                "%time%", String.format(Locale.ROOT, "%.1f", leftNanos / 1_000_000_000.0)));
+    }
+}
@@ -0,0 +1,68 @@
+package com.itemx.item;
+
+import com.itemx.ItemX;
+import com.itemx.util.DebugLogger.Category;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+
+/**
+ * Materializes the definitions of a lazily loaded catalog after startup, a few at a time on the main
+ * thread within a per-tick time budget, and builds their prototypes if those are enabled. Stops on its
+ * own once the catalog it was started for is replaced.
+ */
+final class DefinitionWarmUp implements Runnable {
+
+    private final ItemX plugin;
+    private final ItemManager itemManager;
+    private final ItemCatalog catalog;
+    private final Iterator<ItemDefinition> remaining;
+    private final long tickBudgetNanos;
+    private final long startedAt;
+    private BukkitTask task;
+    private int warmed;
+
+    DefinitionWarmUp(ItemX plugin, ItemManager itemManager, ItemCatalog catalog, long tickBudgetNanos) {
+        this.plugin = plugin;
+        this.itemManager = itemManager;
+        this.catalog = catalog;
+        this.remaining = new ArrayList<>(catalog.getDefinitions()).iterator();
+        this.tickBudgetNanos = tickBudgetNanos;
+        this.startedAt = System.nanoTime();
+    }
+
+    void start() {
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this, 1L, 1L);
+    }
+
+    void cancel() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    @Override
+    public void run() {
+        if (itemManager.getCatalog() != catalog) {
+            cancel();
+            return;
+        }
+
+        // At least one definition per tick, so a tiny budget still finishes
+        long deadline = System.nanoTime() + tickBudgetNanos;
+        do {
+            if (!remaining.hasNext()) {
+                cancel();
+                itemManager.reportDeferredWarnings();
+                plugin.getDebugLogger().log(Category.PARSER, "Warmed up {} lazily loaded items in {}ms",
+                        warmed, (System.nanoTime() - startedAt) / 1_000_000L);
+                return;
+            }
+            itemManager.warmUp(catalog, remaining.next());
+            warmed++;
+        } while (System.nanoTime() < deadline);
+    }
+}
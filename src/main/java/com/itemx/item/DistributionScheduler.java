@@ -0,0 +1,242 @@
+package com.itemx.item;
+
+import com.itemx.ItemX;
+import com.itemx.util.DebugLogger.Category;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Delivers items to many players spread over several ticks. Jobs are queued and drained on the
+ * main thread, one player at a time, until the configured per-tick time budget is spent.
+ * Jobs hold item ids, so a reload part way through delivers the reloaded items; a job whose
+ * items were removed by the reload is cancelled.
+ */
+public class DistributionScheduler {
+
+    private final ItemX plugin;
+    private final ItemManager itemManager;
+    private final Deque<DistributionJob> jobs = new ArrayDeque<>();
+    private BukkitTask task;
+    private long tickBudgetNanos;
+    private int progressInterval;
+    private int ticks;
+
+    public DistributionScheduler(ItemX plugin, ItemManager itemManager) {
+        this.plugin = plugin;
+        this.itemManager = itemManager;
+        reload();
+    }
+
+    public void reload() {
+        double budgetMillis = plugin.getConfig().getDouble("distribution.tick-budget-ms", 2.0);
+        tickBudgetNanos = (long) (Math.max(0.1, budgetMillis) * 1_000_000L);
+        progressInterval = Math.max(1, plugin.getConfig().getInt("distribution.progress-interval-ticks", 20));
+    }
+
+    /**
+     * Queue a delivery to every given player. Players who are offline by the time their turn comes are skipped.
+     * Must be called on the main thread.
+     * @param players The players to deliver to
+     * @param amounts How many of each definition every player receives
+     * @param onProgress Called on the main thread every progress interval while the job runs, may be null
+     * @param onComplete Called on the main thread once every player has been handled, may be null
+     * @return The queued job
+     */
+    public DistributionJob submit(Collection<? extends Player> players, Map<ItemDefinition, Integer> amounts,
+                                  Consumer<DistributionJob> onProgress, Consumer<DistributionJob> onComplete) {
+        List<UUID> recipients = new ArrayList<>(players.size());
+        for (Player player : players) {
+            recipients.add(player.getUniqueId());
+        }
+        Map<String, Integer> amountsById = new LinkedHashMap<>();
+        for (Map.Entry<ItemDefinition, Integer> entry : amounts.entrySet()) {
+            amountsById.merge(entry.getKey().getId(), entry.getValue(), Integer::sum);
+        }
+
+        DistributionJob job = new DistributionJob(recipients, Collections.unmodifiableMap(amountsById),
+                itemManager.getCatalog(), Collections.unmodifiableMap(new LinkedHashMap<>(amounts)), onProgress, onComplete);
+        jobs.add(job);
+        if (task == null) {
+            ticks = 0;
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+        return job;
+    }
+
+    public int getQueuedJobs() {
+        return jobs.size();
+    }
+
+    /**
+     * Cancel every queued job without completing it
+     */
+    public void shutdown() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        for (DistributionJob job : jobs) {
+            job.cancelled = true;
+        }
+        jobs.clear();
+    }
+
+    /**
+     * Point a job at the definitions of the current catalog if it was reloaded since the job last ran
+     * @return False if one of the job's items no longer exists
+     */
+    private boolean resolve(DistributionJob job) {
+        ItemCatalog current = itemManager.getCatalog();
+        if (current == job.catalog) return true;
+
+        Map<ItemDefinition, Integer> amounts = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : job.amountsById.entrySet()) {
+            ItemDefinition definition = current.getDefinition(entry.getKey());
+            if (definition == null) {
+                plugin.getLogger().warning("Cancelled item distribution after " + job.next + " of " + job.recipients.size()
+                        + " players, item " + entry.getKey() + " no longer exists");
+                return false;
+            }
+            amounts.put(definition, entry.getValue());
+        }
+        job.amounts = Collections.unmodifiableMap(amounts);
+        job.catalog = current;
+        return true;
+    }
+
+    private void tick() {
+        long start = System.nanoTime();
+        boolean reportProgress = ++ticks % progressInterval == 0;
+
+        // Always deliver at least once per tick so a tiny budget still makes progress
+        do {
+            DistributionJob job = jobs.peek();
+            if (job == null) break;
+
+            if (!resolve(job)) {
+                jobs.poll();
+                job.cancelled = true;
+                continue;
+            }
+            if (job.next < job.recipients.size()) {
+                deliver(job, job.recipients.get(job.next++));
+            }
+            if (job.next >= job.recipients.size()) {
+                jobs.poll();
+                job.finishedAt = System.nanoTime();
+                job.done = true;
+                plugin.getDebugLogger().log(Category.EVENTS, "Distribution finished: {} delivered, {} skipped", job.delivered, job.skipped);
+                if (job.onComplete != null) {
+                    job.onComplete.accept(job);
+                }
+            }
+        } while (System.nanoTime() - start < tickBudgetNanos);
+
+        DistributionJob current = jobs.peek();
+        if (current == null) {
+            task.cancel();
+            task = null;
+        } else if (reportProgress && current.onProgress != null) {
+            current.onProgress.accept(current);
+        }
+    }
+
+    private void deliver(DistributionJob job, UUID recipient) {
+        Player player = Bukkit.getPlayer(recipient);
+        if (player == null || !player.isOnline()) {
+            job.skipped++;
+            return;
+        }
+
+        try {
+            itemManager.giveItems(player, job.amounts, true);
+            job.delivered++;
+        } catch (RuntimeException e) {
+            job.skipped++;
+            plugin.getLogger().warning("Failed to deliver items to " + player.getName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * One queued delivery to a fixed list of players
+     */
+    public static class DistributionJob {
+        private final List<UUID> recipients;
+        private final Map<String, Integer> amountsById;
+        // The definitions of amountsById in the catalog they were last resolved against
+        private ItemCatalog catalog;
+        private Map<ItemDefinition, Integer> amounts;
+        private final Consumer<DistributionJob> onProgress;
+        private final Consumer<DistributionJob> onComplete;
+        private final long startedAt = System.nanoTime();
+        private long finishedAt;
+        private int next;
+        private int delivered;
+        private int skipped;
+        private boolean done;
+        private boolean cancelled;
+
+        private DistributionJob(List<UUID> recipients, Map<String, Integer> amountsById, ItemCatalog catalog,
+                                Map<ItemDefinition, Integer> amounts, Consumer<DistributionJob> onProgress,
+                                Consumer<DistributionJob> onComplete) {
+            this.recipients = recipients;
+            this.amountsById = amountsById;
+            this.catalog = catalog;
+            this.amounts = amounts;
+            this.onProgress = onProgress;
+            this.onComplete = onComplete;
+        }
+
+        public int getTotal() {
+            return recipients.size();
+        }
+
+        /**
+         * Players handled so far, delivered or skipped
+         */
+        public int getProcessed() {
+            return next;
+        }
+
+        public int getDelivered() {
+            return delivered;
+        }
+
+        /**
+         * Players who went offline before their turn or whose delivery failed
+         */
+        public int getSkipped() {
+            return skipped;
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+
+        /**
+         * Whether the job stopped early, on shutdown or because a reload removed one of its items
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Time from submission until completion, or until now while running
+         */
+        public long getElapsedMillis() {
+            return ((done ? finishedAt : System.nanoTime()) - startedAt) / 1_000_000L;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.itemx.item;
+
+import com.itemx.util.NBTUtil;
+import org.bukkit.Material;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Counts, finds and removes ItemX items in inventories. A query resolves its item ids against the
+ * catalog once; each slot is then rejected by material before its meta is read, and candidates
+ * cost a single PDC read however many ids are asked for.
+ * <p>
+ * Only storage slots are scanned: for players that is the main inventory and hotbar, not armor or the off hand.
+ */
+public class InventoryScanner {
+
+    private final ItemManager itemManager;
+    private final NBTUtil nbtUtil;
+
+    InventoryScanner(ItemManager itemManager, NBTUtil nbtUtil) {
+        this.itemManager = itemManager;
+        this.nbtUtil = nbtUtil;
+    }
+
+    public int count(Inventory inventory, String itemId) {
+        return count(inventory, List.of(itemId)).getOrDefault(itemId, 0);
+    }
+
+    /**
+     * Count several items in one pass
+     * @return Amounts keyed by item id; every requested id is present, unknown ones with 0
+     */
+    public Map<String, Integer> count(Inventory inventory, Collection<String> itemIds) {
+        Query query = new Query(itemManager.getCatalog(), itemIds);
+        Map<String, Integer> counts = query.emptyResult();
+        ItemStack[] contents = inventory.getStorageContents();
+        for (ItemStack stack : contents) {
+            String itemId = query.match(stack);
+            if (itemId != null) {
+                counts.merge(itemId, stack.getAmount(), Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Find the slots holding several items in one pass
+     * @return Slot indexes keyed by item id, in slot order; every requested id is present
+     */
+    public Map<String, List<Integer>> find(Inventory inventory, Collection<String> itemIds) {
+        Query query = new Query(itemManager.getCatalog(), itemIds);
+        Map<String, List<Integer>> slots = new LinkedHashMap<>();
+        for (String itemId : itemIds) {
+            slots.put(itemId, new ArrayList<>());
+        }
+        ItemStack[] contents = inventory.getStorageContents();
+        for (int slot = 0; slot < contents.length; slot++) {
+            String itemId = query.match(contents[slot]);
+            if (itemId != null) {
+                slots.get(itemId).add(slot);
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Remove up to the given amounts, taking what is there when an amount is not available
+     * @return The amounts actually removed, keyed by item id
+     */
+    public Map<String, Integer> remove(Inventory inventory, Map<String, Integer> amounts) {
+        return remove(inventory, amounts, false);
+    }
+
+    /**
+     * Remove the given amounts only if every one of them is available, in a single pass
+     * @return True if the items were taken, false if the inventory was left untouched
+     */
+    public boolean take(Inventory inventory, Map<String, Integer> amounts) {
+        return remove(inventory, amounts, true) != null;
+    }
+
+    private Map<String, Integer> remove(Inventory inventory, Map<String, Integer> amounts, boolean allOrNothing) {
+        Query query = new Query(itemManager.getCatalog(), amounts.keySet());
+        ItemStack[] contents = inventory.getStorageContents();
+
+        // Match every slot once, then decide what to take from the matches
+        String[] matches = new String[contents.length];
+        Map<String, Integer> available = query.emptyResult();
+        for (int slot = 0; slot < contents.length; slot++) {
+            String itemId = query.match(contents[slot]);
+            if (itemId != null) {
+                matches[slot] = itemId;
+                available.merge(itemId, contents[slot].getAmount(), Integer::sum);
+            }
+        }
+
+        if (allOrNothing) {
+            for (Map.Entry<String, Integer> entry : amounts.entrySet()) {
+                if (available.get(entry.getKey()) < entry.getValue()) {
+                    return null;
+                }
+            }
+        }
+
+        Map<String, Integer> remaining = new HashMap<>(amounts);
+        Map<String, Integer> removed = query.emptyResult();
+        for (int slot = 0; slot < contents.length; slot++) {
+            String itemId = matches[slot];
+            if (itemId == null) continue;
+            int wanted = remaining.getOrDefault(itemId, 0);
+            if (wanted <= 0) continue;
+
+            ItemStack stack = contents[slot];
+            int taken = Math.min(wanted, stack.getAmount());
+            if (taken == stack.getAmount()) {
+                inventory.setItem(slot, null);
+            } else {
+                stack.setAmount(stack.getAmount() - taken);
+                inventory.setItem(slot, stack);
+            }
+            remaining.put(itemId, wanted - taken);
+            removed.merge(itemId, taken, Integer::sum);
+        }
+        return removed;
+    }
+
+    /**
+     * Item ids resolved to NBT ids and the materials worth reading
+     */
+    private final class Query {
+        private final Collection<String> itemIds;
+        private final Map<String, String> idsByNbtId = new HashMap<>();
+        private final Set<Material> materials = EnumSet.noneOf(Material.class);
+
+        private Query(ItemCatalog catalog, Collection<String> itemIds) {
+            this.itemIds = itemIds;
+            for (String itemId : itemIds) {
+                ItemDefinition definition = catalog.getDefinition(itemId);
+                if (definition != null) {
+                    idsByNbtId.put(definition.getFullNbtId(), itemId);
+                    materials.add(definition.getMaterial());
+                }
+            }
+        }
+
+        /**
+         * The requested item id a stack is, or null
+         */
+        String match(ItemStack stack) {
+            if (stack == null || !materials.contains(stack.getType())) return null;
+            String nbtId = nbtUtil.getItemId(stack);
+            return nbtId != null ? idsByNbtId.get(nbtId) : null;
+        }
+
+        Map<String, Integer> emptyResult() {
+            Map<String, Integer> result = new LinkedHashMap<>();
+            for (String itemId : itemIds) {
+                result.put(itemId, 0);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.itemx.item;
+
+import com.itemx.ItemX;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Compiled on-disk copy of the parsed item files ({@code cache/items.bin}), so warm starts can skip
+ * YAML parsing for files whose fingerprint has not changed.
+ * <p>
+ * Layout: magic, format version, file count, then per file its relative path, category, modification
+ * time, size, content hash, warnings and specs, followed by a CRC32 of everything before it.
+ */
+public class ItemCache {
+
+    private static final int MAGIC = 0x49584331; // "IXC1"
+    // Bump whenever the layout or the fields of ItemSpec change
+    private static final int FORMAT_VERSION = 3;
+
+    private final ItemX plugin;
+    private final File file;
+
+    public ItemCache(ItemX plugin) {
+        this.plugin = plugin;
+        this.file = new File(plugin.getDataFolder(), "cache/items.bin");
+    }
+
+    /**
+     * Read the compiled catalog
+     * @param itemsDirectory The items directory the stored paths are relative to
+     * @return Parsed files keyed by relative path; empty if there is no usable cache
+     */
+    public Map<String, ItemParser.ParsedFile> read(File itemsDirectory) {
+        if (!file.isFile()) {
+            return Collections.emptyMap();
+        }
+
+        try {
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            if (bytes.length < 16) {
+                throw new IOException("truncated");
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(bytes, 0, bytes.length - 8);
+            if (ByteBuffer.wrap(bytes, bytes.length - 8, 8).getLong() != crc.getValue()) {
+                throw new IOException("checksum mismatch");
+            }
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 8));
+            if (in.readInt() != MAGIC) {
+                throw new IOException("not a compiled item catalog");
+            }
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                plugin.getLogger().info("Compiled item catalog has format " + version + ", rebuilding as format " + FORMAT_VERSION);
+                return Collections.emptyMap();
+            }
+
+            int fileCount = in.readInt();
+            Map<String, ItemParser.ParsedFile> files = new HashMap<>(fileCount * 2);
+            for (int i = 0; i < fileCount; i++) {
+                String path = readString(in);
+                String category = readString(in);
+                long lastModified = in.readLong();
+                long size = in.readLong();
+                long contentHash = in.readLong();
+                List<String> warnings = readStringList(in);
+
+                int specCount = in.readInt();
+                List<ItemSpec> specs = new ArrayList<>(specCount);
+                for (int j = 0; j < specCount; j++) {
+                    specs.add(readSpec(in));
+                }
+
+                files.put(path, new ItemParser.ParsedFile(new File(itemsDirectory, path), category, specs, warnings,
+                        0, null, lastModified, size, contentHash, true));
+            }
+            return files;
+        } catch (IOException | RuntimeException e) {
+            plugin.getLogger().warning("Ignoring corrupt compiled item catalog, rebuilding from YAML: " + e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Write the given files as the new compiled catalog. Failed files are left out so they are parsed again next time.
+     * The file is written to a temporary file first and moved into place, so readers never see a partial cache.
+     * @param files Parsed files keyed by path relative to the items directory
+     */
+    public synchronized void write(Map<String, ItemParser.ParsedFile> files) throws IOException {
+        File directory = file.getParentFile();
+        directory.mkdirs();
+        File temp = new File(directory, file.getName() + ".tmp");
+
+        Map<String, ItemParser.ParsedFile> valid = new LinkedHashMap<>();
+        for (Map.Entry<String, ItemParser.ParsedFile> entry : files.entrySet()) {
+            if (!entry.getValue().isFailed()) {
+                valid.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        CRC32 crc = new CRC32();
+        try (OutputStream fileOut = new BufferedOutputStream(Files.newOutputStream(temp.toPath()))) {
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(fileOut, crc));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(valid.size());
+            for (Map.Entry<String, ItemParser.ParsedFile> entry : valid.entrySet()) {
+                ItemParser.ParsedFile parsed = entry.getValue();
+                writeString(out, entry.getKey());
+                writeString(out, parsed.getCategory());
+                out.writeLong(parsed.getLastModified());
+                out.writeLong(parsed.getSize());
+                out.writeLong(parsed.getContentHash());
+                writeStringList(out, parsed.getWarnings());
+                out.writeInt(parsed.getSpecs().size());
+                for (ItemSpec spec : parsed.getSpecs()) {
+                    writeSpec(out, spec);
+                }
+            }
+            out.flush();
+            // The checksum itself is not part of the checked data
+            new DataOutputStream(fileOut).writeLong(crc.getValue());
+        }
+
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeSpec(DataOutputStream out, ItemSpec spec) throws IOException {
+        writeString(out, spec.getId());
+        writeString(out, spec.getMaterialName());
+        writeString(out, spec.getName());
+        writeStringList(out, spec.getLore());
+        out.writeBoolean(spec.isUnbreakable());
+        out.writeBoolean(spec.isUseVanillaLore());
+        out.writeInt(spec.getEnchantments().size());
+        for (Map.Entry<String, Integer> entry : spec.getEnchantments().entrySet()) {
+            writeString(out, entry.getKey());
+            out.writeInt(entry.getValue());
+        }
+        out.writeBoolean(spec.isDisableUse());
+        writeString(out, spec.getNbtId());
+        writeString(out, spec.getTrimPattern());
+        writeString(out, spec.getTrimMaterial());
+        writeString(out, spec.getCategory());
+        writeRecipe(out, spec.getRecipe());
+        out.writeLong(spec.getCooldownMillis());
+    }
+
+    private static void writeRecipe(DataOutputStream out, RecipeSpec recipe) throws IOException {
+        out.writeBoolean(recipe != null);
+        if (recipe == null) {
+            return;
+        }
+        out.writeByte(recipe.getType().ordinal());
+        out.writeInt(recipe.getAmount());
+        writeStringList(out, recipe.getShape());
+        out.writeInt(recipe.getKeys().size());
+        for (Map.Entry<Character, String> entry : recipe.getKeys().entrySet()) {
+            out.writeChar(entry.getKey());
+            writeString(out, entry.getValue());
+        }
+        writeStringList(out, recipe.getIngredients());
+        writeString(out, recipe.getTemplate());
+        writeString(out, recipe.getBase());
+        writeString(out, recipe.getAddition());
+    }
+
+    private static RecipeSpec readRecipe(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        RecipeSpec.Type type = RecipeSpec.Type.values()[in.readByte()];
+        int amount = in.readInt();
+        List<String> shape = readStringList(in);
+        int keyCount = in.readInt();
+        Map<Character, String> keys = new LinkedHashMap<>();
+        for (int i = 0; i < keyCount; i++) {
+            keys.put(in.readChar(), readString(in));
+        }
+        List<String> ingredients = readStringList(in);
+        String template = readString(in);
+        String base = readString(in);
+        String addition = readString(in);
+        return new RecipeSpec(type, shape, keys, ingredients, template, base, addition, amount);
+    }
+
+    private static ItemSpec readSpec(DataInputStream in) throws IOException {
+        String id = readString(in);
+        String materialName = readString(in);
+        String name = readString(in);
+        List<String> lore = readStringList(in);
+        boolean unbreakable = in.readBoolean();
+        boolean useVanillaLore = in.readBoolean();
+        int enchantCount = in.readInt();
+        Map<String, Integer> enchantments = new LinkedHashMap<>();
+        for (int i = 0; i < enchantCount; i++) {
+            enchantments.put(readString(in), in.readInt());
+        }
+        boolean disableUse = in.readBoolean();
+        String nbtId = readString(in);
+        String trimPattern = readString(in);
+        String trimMaterial = readString(in);
+        String category = readString(in);
+        RecipeSpec recipe = readRecipe(in);
+        long cooldownMillis = in.readLong();
+        return new ItemSpec(id, materialName, name, lore, unbreakable, useVanillaLore, enchantments,
+                disableUse, nbtId, trimPattern, trimMaterial, category, recipe, cooldownMillis);
+    }
+
+    private static void writeStringList(DataOutputStream out, Collection<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static List<String> readStringList(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    /**
+     * Length-prefixed UTF-8; a length of -1 encodes null
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,251 @@
+package com.itemx.item;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An immutable snapshot of every loaded definition together with the indexes built from it.
+ * A new catalog is built in full on each load and published with a single reference swap,
+ * so readers always see one consistent catalog without locking.
+ */
+public final class ItemCatalog {
+
+    static final ItemCatalog EMPTY = new ItemCatalog(Collections.emptyList());
+
+    /**
+     * Orders relative item file paths the way the items directory is walked: component by component, by name
+     */
+    static final Comparator<String> PATH_ORDER = (a, b) -> {
+        String[] left = a.split("/");
+        String[] right = b.split("/");
+        for (int i = 0; i < Math.min(left.length, right.length); i++) {
+            int result = left[i].compareTo(right[i]);
+            if (result != 0) return result;
+        }
+        return Integer.compare(left.length, right.length);
+    };
+
+    private final Map<String, SourceFile> files;
+    private final Map<String, ItemDefinition> definitions;
+    private final Map<String, ItemDefinition> definitionsByNbtId;
+    private final Set<Material> disableUseMaterials;
+    private final Set<Material> cooldownMaterials;
+    // NBT ids of the definitions with a cooldown; the position is the definition's cooldown ordinal
+    private final List<String> cooldownNbtIds;
+    private final Map<String, Integer> cooldownOrdinals;
+    private final Set<Material> materials;
+    private final CategoryIndex categoryIndex;
+    private final CompletionIndex idCompletions;
+    private final CompletionIndex itemOrCategoryCompletions;
+    private final List<String> warnings;
+    // Prototype stacks are a cache scoped to this snapshot: they are dropped along with it
+    private final Map<ItemDefinition, ItemStack> prototypes;
+    private final Map<ItemDefinition, LoreTemplate> loreTemplates;
+
+    /**
+     * Merge the given files, in the given order, into a catalog. A later file overrides
+     * an item id defined by an earlier one.
+     */
+    ItemCatalog(Collection<SourceFile> sourceFiles) {
+        Map<String, SourceFile> fileMap = new LinkedHashMap<>();
+        Map<String, ItemDefinition> merged = new LinkedHashMap<>();
+        Map<String, SourceFile> origins = new HashMap<>();
+        List<String> warnings = new ArrayList<>();
+        for (SourceFile file : sourceFiles) {
+            fileMap.put(file.getPath(), file);
+            for (ItemDefinition definition : file.getDefinitions().values()) {
+                SourceFile previous = origins.put(definition.getId(), file);
+                if (previous != null) {
+                    warnings.add("Item " + definition.getId() + " in " + file.getPath()
+                            + " overrides the definition from " + previous.getPath());
+                }
+                merged.put(definition.getId(), definition);
+            }
+        }
+        this.files = Collections.unmodifiableMap(fileMap);
+        this.definitions = Collections.unmodifiableMap(merged);
+        this.prototypes = new ConcurrentHashMap<>();
+        this.loreTemplates = new ConcurrentHashMap<>();
+
+        // Lowest item id wins a shared NBT id, independent of load order
+        List<ItemDefinition> sorted = new ArrayList<>(merged.values());
+        sorted.sort(Comparator.comparing(ItemDefinition::getId));
+        Map<String, ItemDefinition> byNbtId = new HashMap<>();
+        Set<Material> disableUse = EnumSet.noneOf(Material.class);
+        Set<Material> cooldown = EnumSet.noneOf(Material.class);
+        List<String> cooldownIds = new ArrayList<>();
+        Map<String, Integer> ordinals = new HashMap<>();
+        Set<Material> used = EnumSet.noneOf(Material.class);
+        for (ItemDefinition definition : sorted) {
+            used.add(definition.getMaterial());
+            ItemDefinition existing = byNbtId.putIfAbsent(definition.getFullNbtId(), definition);
+            if (existing != null) {
+                warnings.add("Duplicate NBT id '" + definition.getFullNbtId() + "' on items "
+                        + existing.getId() + " and " + definition.getId() + " - only " + existing.getId()
+                        + " will be recognised by listeners");
+            }
+            if (definition.isDisableUse()) {
+                disableUse.add(definition.getMaterial());
+            }
+            if (existing == null && definition.getCooldownMillis() > 0) {
+                cooldown.add(definition.getMaterial());
+                ordinals.put(definition.getFullNbtId(), cooldownIds.size());
+                cooldownIds.add(definition.getFullNbtId());
+            }
+        }
+        this.definitionsByNbtId = byNbtId;
+        this.disableUseMaterials = disableUse;
+        this.cooldownMaterials = cooldown;
+        this.cooldownNbtIds = Collections.unmodifiableList(cooldownIds);
+        this.cooldownOrdinals = ordinals;
+        this.materials = used;
+        this.categoryIndex = new CategoryIndex(merged.values());
+        this.idCompletions = new CompletionIndex(merged.keySet());
+        List<String> itemOrCategory = new ArrayList<>(merged.keySet());
+        for (String category : categoryIndex.getCategories()) {
+            itemOrCategory.add("category:" + category);
+        }
+        this.itemOrCategoryCompletions = new CompletionIndex(itemOrCategory);
+        this.warnings = Collections.unmodifiableList(warnings);
+    }
+
+    public ItemDefinition getDefinition(String id) {
+        return definitions.get(id);
+    }
+
+    public ItemDefinition getDefinitionByNbtId(String nbtId) {
+        return definitionsByNbtId.get(nbtId);
+    }
+
+    public boolean contains(ItemDefinition definition) {
+        return definitions.get(definition.getId()) == definition;
+    }
+
+    public Set<String> getIds() {
+        return definitions.keySet();
+    }
+
+    public Collection<ItemDefinition> getDefinitions() {
+        return definitions.values();
+    }
+
+    public int size() {
+        return definitions.size();
+    }
+
+    public CategoryIndex getCategoryIndex() {
+        return categoryIndex;
+    }
+
+    /**
+     * Prefix index over item ids
+     */
+    public CompletionIndex getIdCompletions() {
+        return idCompletions;
+    }
+
+    /**
+     * Prefix index over item ids and {@code category:<path>} entries, as accepted by {@code /itemx get}
+     */
+    public CompletionIndex getItemOrCategoryCompletions() {
+        return itemOrCategoryCompletions;
+    }
+
+    public boolean isDisableUseMaterial(Material material) {
+        return disableUseMaterials.contains(material);
+    }
+
+    public boolean isCooldownMaterial(Material material) {
+        return cooldownMaterials.contains(material);
+    }
+
+    /**
+     * Dense index of a definition among those with a cooldown, or -1 if it has none
+     */
+    public int getCooldownOrdinal(ItemDefinition definition) {
+        Integer ordinal = cooldownOrdinals.get(definition.getFullNbtId());
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /**
+     * NBT ids of the definitions with a cooldown, in ordinal order
+     */
+    List<String> getCooldownNbtIds() {
+        return cooldownNbtIds;
+    }
+
+    /**
+     * Whether any definition uses the material, so stacks of other materials can be skipped without reading their meta
+     */
+    public boolean isItemMaterial(Material material) {
+        return materials.contains(material);
+    }
+
+    /**
+     * Item id overrides and NBT id clashes found while merging, for reporting at load
+     */
+    List<String> getWarnings() {
+        return warnings;
+    }
+
+    /**
+     * The source files of this catalog, keyed by path relative to the items directory, in load order
+     */
+    Map<String, SourceFile> getFiles() {
+        return files;
+    }
+
+    Map<ItemDefinition, ItemStack> getPrototypes() {
+        return prototypes;
+    }
+
+    Map<ItemDefinition, LoreTemplate> getLoreTemplates() {
+        return loreTemplates;
+    }
+
+    /**
+     * The definitions read from one file of the items directory
+     */
+    static final class SourceFile {
+        private final String path;
+        private final File file;
+        private final String category;
+        private final Map<String, ItemDefinition> definitions;
+
+        SourceFile(String path, File file, String category, Map<String, ItemDefinition> definitions) {
+            this.path = path;
+            this.file = file;
+            this.category = category;
+            this.definitions = Collections.unmodifiableMap(new LinkedHashMap<>(definitions));
+        }
+
+        String getPath() {
+            return path;
+        }
+
+        File getFile() {
+            return file;
+        }
+
+        String getCategory() {
+            return category;
+        }
+
+        Map<String, ItemDefinition> getDefinitions() {
+            return definitions;
+        }
+    }
+}
@@ -6,9 +6,13 @@ import org.bukkit.inventory.meta.trim.ArmorTrim;
 import org.bukkit.inventory.meta.trim.TrimMaterial;
 import org.bukkit.inventory.meta.trim.TrimPattern;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
 
 public class ItemDefinition {
     
@@ -18,16 +22,26 @@ public class ItemDefinition {
     private final List<String> lore;
     private final boolean unbreakable;
     private final boolean useVanillaLore;
-    private final Map<Enchantment, Integer> enchantments;
+    // Resolved against the registries; for lazily loaded definitions only once pendingParts has run
+    private Map<Enchantment, Integer> enchantments;
     private final boolean disableUse;
     private final String nbtId;
-    private final ArmorTrimData armorTrim;
+    private ArmorTrimData armorTrim;
+    private volatile Supplier<RegistryParts> pendingParts;
+    // The keys the registry parts are resolved from, kept by lazily loaded definitions so comparing them never resolves
+    private RegistryKeys registryKeys;
     private final String category;
+    private final String fullNbtId;
+    private final RecipeSpec recipe;
+    private final long cooldownMillis;
+    private int hash;
+    private long contentHash;
     
     public ItemDefinition(String id, Material material, String name, List<String> lore, 
                          boolean unbreakable, boolean useVanillaLore, 
                          Map<Enchantment, Integer> enchantments, boolean disableUse, 
-                         String nbtId, ArmorTrimData armorTrim, String category) {
+                         String nbtId, ArmorTrimData armorTrim, String category, RecipeSpec recipe,
+                         long cooldownMillis) {
         this.id = id;
         this.material = material;
         this.name = name;
@@ -39,6 +53,26 @@ public class ItemDefinition {
         this.nbtId = nbtId;
         this.armorTrim = armorTrim;
         this.category = category;
+        this.fullNbtId = nbtId != null && !nbtId.isEmpty()
+                ? nbtId
+                : "itemx:" + (category != null ? category + "/" : "") + id;
+        this.recipe = recipe;
+        this.cooldownMillis = cooldownMillis;
+    }
+    
+    /**
+     * A definition whose enchantments and armor trim are only resolved, and checked, the first time they are needed
+     * @param registryKeys The enchantment and trim keys as written in the item file
+     * @param registryParts Resolves them; called at most once, from whichever thread gets there first
+     */
+    ItemDefinition(String id, Material material, String name, List<String> lore,
+                   boolean unbreakable, boolean useVanillaLore, boolean disableUse,
+                   String nbtId, String category, RecipeSpec recipe, long cooldownMillis,
+                   RegistryKeys registryKeys, Supplier<RegistryParts> registryParts) {
+        this(id, material, name, lore, unbreakable, useVanillaLore, null, disableUse, nbtId, null,
+                category, recipe, cooldownMillis);
+        this.registryKeys = registryKeys;
+        this.pendingParts = registryParts;
     }
     
     public String getId() {
@@ -66,6 +100,7 @@ public class ItemDefinition {
     }
     
     public Map<Enchantment, Integer> getEnchantments() {
+        materialize();
         return enchantments;
     }
     
@@ -78,6 +113,7 @@ public class ItemDefinition {
     }
     
     public ArmorTrimData getArmorTrim() {
+        materialize();
         return armorTrim;
     }
     
@@ -86,10 +122,175 @@ public class ItemDefinition {
     }
     
     public String getFullNbtId() {
-        if (nbtId != null && !nbtId.isEmpty()) {
-            return nbtId;
+        return fullNbtId;
+    }
+    
+    /**
+     * Whether the registry parts of this definition have been resolved
+     */
+    public boolean isMaterialized() {
+        return pendingParts == null;
+    }
+    
+    /**
+     * Resolve the registry parts of a lazily loaded definition now, if that has not happened yet
+     */
+    public void materialize() {
+        if (pendingParts == null) return;
+        synchronized (this) {
+            Supplier<RegistryParts> parts = pendingParts;
+            if (parts == null) return;
+            RegistryParts resolved = parts.get();
+            enchantments = resolved.enchantments != null ? resolved.enchantments : new HashMap<>();
+            armorTrim = resolved.armorTrim;
+            // The volatile write publishes the fields above to every reader that sees it
+            pendingParts = null;
+        }
+    }
+    
+    /**
+     * The recipe that crafts this item, or null if it has none
+     */
+    public RecipeSpec getRecipe() {
+        return recipe;
+    }
+    
+    /**
+     * How long a player has to wait between uses of this item, 0 for no cooldown
+     */
+    public long getCooldownMillis() {
+        return cooldownMillis;
+    }
+    
+    /**
+     * Stable 64-bit fingerprint of everything that shapes the created item. Unlike {@link #hashCode()} it only
+     * hashes names and keys, so it is the same across restarts and can be stamped on items to spot stale ones.
+     */
+    public long getContentHash() {
+        long h = contentHash;
+        if (h == 0) {
+            StringBuilder content = new StringBuilder(128);
+            content.append(id).append('\0').append(material.name()).append('\0')
+                    .append(name).append('\0').append(lore).append('\0')
+                    .append(unbreakable).append(useVanillaLore).append(disableUse).append('\0')
+                    .append(fullNbtId).append('\0');
+            Map<Enchantment, Integer> enchantments = getEnchantments();
+            ArmorTrimData armorTrim = getArmorTrim();
+            List<String> enchants = new ArrayList<>(enchantments.size());
+            for (Map.Entry<Enchantment, Integer> entry : enchantments.entrySet()) {
+                enchants.add(entry.getKey().getKey() + "=" + entry.getValue());
+            }
+            Collections.sort(enchants);
+            content.append(enchants).append('\0');
+            if (armorTrim != null) {
+                content.append(armorTrim.getPattern().key()).append('+').append(armorTrim.getMaterial().key());
+            }
+
+            h = 0xcbf29ce484222325L;
+            for (int i = 0; i < content.length(); i++) {
+                h ^= content.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            if (h == 0) h = 1;
+            contentHash = h;
+        }
+        return h;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ItemDefinition)) return false;
+        ItemDefinition other = (ItemDefinition) o;
+        return hashCode() == other.hashCode()
+                && unbreakable == other.unbreakable
+                && useVanillaLore == other.useVanillaLore
+                && disableUse == other.disableUse
+                && cooldownMillis == other.cooldownMillis
+                && material == other.material
+                && id.equals(other.id)
+                && Objects.equals(name, other.name)
+                && Objects.equals(lore, other.lore)
+                && Objects.equals(nbtId, other.nbtId)
+                && Objects.equals(category, other.category)
+                && Objects.equals(recipe, other.recipe)
+                && registryPartsEqual(other);
+    }
+    
+    private boolean registryPartsEqual(ItemDefinition other) {
+        // Two lazily loaded definitions compare their keys, so hot reloads and recipe diffs leave them unresolved
+        if (registryKeys != null && other.registryKeys != null) {
+            return registryKeys.equals(other.registryKeys);
+        }
+        return getEnchantments().equals(other.getEnchantments())
+                && Objects.equals(getArmorTrim(), other.getArmorTrim());
+    }
+    
+    @Override
+    public int hashCode() {
+        // Definitions are immutable, so the hash is computed once; prototypes are keyed by definition.
+        // The registry parts are left out so hashing never forces a lazy definition to resolve them.
+        int h = hash;
+        if (h == 0) {
+            h = Objects.hash(id, material, name, lore, unbreakable, useVanillaLore,
+                    disableUse, nbtId, category, recipe, cooldownMillis);
+            hash = h;
+        }
+        return h;
+    }
+    
+    /**
+     * The registry keys of a definition as written in its item file, lower-cased the way they are looked up
+     */
+    static final class RegistryKeys {
+        private final Map<String, Integer> enchantments;
+        private final String trimPattern;
+        private final String trimMaterial;
+        
+        RegistryKeys(Map<String, Integer> enchantments, String trimPattern, String trimMaterial) {
+            this.enchantments = new HashMap<>(enchantments.size() * 2);
+            for (Map.Entry<String, Integer> entry : enchantments.entrySet()) {
+                this.enchantments.put(entry.getKey().toLowerCase(), entry.getValue());
+            }
+            this.trimPattern = trimPattern != null ? trimPattern.toLowerCase() : null;
+            this.trimMaterial = trimMaterial != null ? trimMaterial.toLowerCase() : null;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof RegistryKeys)) return false;
+            RegistryKeys other = (RegistryKeys) o;
+            return enchantments.equals(other.enchantments)
+                    && Objects.equals(trimPattern, other.trimPattern)
+                    && Objects.equals(trimMaterial, other.trimMaterial);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(enchantments, trimPattern, trimMaterial);
+        }
+    }
+    
+    /**
+     * The parts of a definition that need registry lookups
+     */
+    static final class RegistryParts {
+        private final Map<Enchantment, Integer> enchantments;
+        private final ArmorTrimData armorTrim;
+        
+        RegistryParts(Map<Enchantment, Integer> enchantments, ArmorTrimData armorTrim) {
+            this.enchantments = enchantments;
+            this.armorTrim = armorTrim;
+        }
+        
+        Map<Enchantment, Integer> getEnchantments() {
+            return enchantments;
+        }
+        
+        ArmorTrimData getArmorTrim() {
+            return armorTrim;
         }
-        return "itemx:" + (category != null ? category + "/" : "") + id;
     }
     
     public static class ArmorTrimData {
@@ -112,5 +313,18 @@ public class ItemDefinition {
         public ArmorTrim createArmorTrim() {
             return new ArmorTrim(material, pattern);
         }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ArmorTrimData)) return false;
+            ArmorTrimData other = (ArmorTrimData) o;
+            return pattern.equals(other.pattern) && material.equals(other.material);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(pattern, material);
+        }
     }
 }
\ No newline at end of file
@@ -1,45 +1,111 @@
 package com.itemx.item;
 
 import com.itemx.ItemX;
+import com.itemx.util.DebugLogger.Category;
+import com.itemx.util.Metrics;
 import com.itemx.util.NBTUtil;
 import net.kyori.adventure.text.Component;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.enchantments.Enchantment;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
+import org.bukkit.event.block.Action;
 import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
 import org.bukkit.inventory.meta.ArmorMeta;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.inventory.ItemFlag;
 import org.bukkit.inventory.meta.trim.ArmorTrim;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 public class ItemManager implements Listener {
 
     private final ItemX plugin;
     private final ItemParser parser;
+    private final ItemCache itemCache;
     private final NBTUtil nbtUtil;
-    private final Map<String, ItemDefinition> itemDefinitions;
+    private final LongAdder prototypeHits;
+    private final LongAdder prototypeMisses;
+    private volatile boolean prototypesEnabled;
+    private volatile boolean lazyLoading;
+    private DefinitionWarmUp warmUp;
+    // Warnings reported by lazily loaded definitions since the items were last fully reloaded
+    private final List<String> deferredWarnings = new ArrayList<>();
+    private volatile ItemCatalog catalog;
+    private ItemWatcher watcher;
+    private final DistributionScheduler distributionScheduler;
+    private final ItemUpdater itemUpdater;
+    private final InventoryScanner inventoryScanner;
+    private final RecipeManager recipeManager;
+    private final CooldownTracker cooldownTracker;
+    private final PlacedBlockTracker placedBlockTracker;
+    private final Map<String, LorePlaceholder> lorePlaceholders = new ConcurrentHashMap<>();
 
     public ItemManager(ItemX plugin) {
         this.plugin = plugin;
         this.parser = new ItemParser(plugin);
+        this.itemCache = new ItemCache(plugin);
         this.nbtUtil = new NBTUtil(plugin);
-        this.itemDefinitions = new ConcurrentHashMap<>();
+        this.prototypeHits = new LongAdder();
+        this.prototypeMisses = new LongAdder();
+        this.catalog = ItemCatalog.EMPTY;
+        this.distributionScheduler = new DistributionScheduler(plugin, this);
+        this.itemUpdater = new ItemUpdater(plugin, this, nbtUtil);
+        this.inventoryScanner = new InventoryScanner(this, nbtUtil);
+        this.recipeManager = new RecipeManager(plugin, this, nbtUtil);
+        this.cooldownTracker = new CooldownTracker(plugin, this);
+        this.placedBlockTracker = new PlacedBlockTracker(plugin, this, nbtUtil);
 
         // Register event listener
         Bukkit.getPluginManager().registerEvents(this, plugin);
+        Bukkit.getPluginManager().registerEvents(itemUpdater, plugin);
+        Bukkit.getPluginManager().registerEvents(recipeManager, plugin);
+        Bukkit.getPluginManager().registerEvents(cooldownTracker, plugin);
+        Bukkit.getPluginManager().registerEvents(placedBlockTracker, plugin);
     }
 
-    public void loadItems() {
-        itemDefinitions.clear();
+    /**
+     * Build a new catalog from the items directory and publish it in one swap. Lookups keep
+     * seeing the previous catalog until the new one, including its prototypes, is complete.
+     * @return True if the new catalog was published, false if the previous one was kept
+     */
+    public boolean loadItems() {
+        Metrics metrics = plugin.getMetrics();
+        long start = metrics.start();
+        long allocated = metrics.allocatedBytes();
+        try {
+            return reloadCatalog();
+        } finally {
+            metrics.record(Metrics.Timer.LOAD_ITEMS, start, allocated);
+        }
+    }
+
+    private boolean reloadCatalog() {
+        prototypesEnabled = plugin.getConfig().getBoolean("cache.prototypes", true);
+        lazyLoading = plugin.getConfig().getBoolean("loading.lazy", false);
+        nbtUtil.reload();
+        distributionScheduler.reload();
+        itemUpdater.reload();
+        cooldownTracker.reload();
+        placedBlockTracker.reload();
 
         File itemsDir = new File(plugin.getDataFolder(), "items");
         if (!itemsDir.exists()) {
@@ -47,27 +113,359 @@ public class ItemManager implements Listener {
             createExampleItems();
         }
 
-        loadItemsFromDirectory(itemsDir, "");
+        ItemCatalog loaded;
+        try {
+            loaded = loadCatalog(itemsDir);
+        } catch (RuntimeException e) {
+            plugin.getLogger().severe("Failed to load items, keeping the previous catalog: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+        if (loaded == null) {
+            return false;
+        }
+
+        for (String warning : loaded.getWarnings()) {
+            plugin.getLogger().warning(warning);
+        }
+
+        // Lazy catalogs build prototypes on first use or during the warm-up instead
+        if (prototypesEnabled && !lazyLoading) {
+            buildPrototypes(loaded);
+        }
+
+        catalog = loaded;
+        deferredWarnings.clear();
+        cooldownTracker.apply(loaded);
+        recipeManager.apply(loaded);
+        startWarmUp(loaded);
+        plugin.getLogger().info("Loaded " + loaded.size() + " custom items" + (lazyLoading ? " (lazy)" : ""));
+        return true;
+    }
+
+    /**
+     * Materialize the definitions of a lazy catalog in the background, if configured
+     */
+    private void startWarmUp(ItemCatalog loaded) {
+        if (warmUp != null) {
+            warmUp.cancel();
+            warmUp = null;
+        }
+        if (!lazyLoading || !plugin.getConfig().getBoolean("loading.warm-up", true)) {
+            return;
+        }
+
+        double budgetMillis = plugin.getConfig().getDouble("loading.warm-up-budget-ms", 1.0);
+        warmUp = new DefinitionWarmUp(plugin, this, loaded, (long) (Math.max(0.1, budgetMillis) * 1_000_000L));
+        warmUp.start();
+    }
+
+    /**
+     * Log the warnings lazily loaded definitions produced while resolving since this was last called.
+     * Must run on the main thread.
+     * @return Every such warning since the items were last fully reloaded
+     */
+    public List<String> reportDeferredWarnings() {
+        for (String warning : parser.drainDeferredWarnings()) {
+            plugin.getLogger().warning(warning);
+            deferredWarnings.add(warning);
+        }
+        return new ArrayList<>(deferredWarnings);
+    }
+
+    /**
+     * Materialize one definition and build its prototype if prototypes are enabled
+     */
+    void warmUp(ItemCatalog owner, ItemDefinition definition) {
+        definition.materialize();
+        if (prototypesEnabled) {
+            owner.getPrototypes().computeIfAbsent(definition, d -> buildItem(owner, d));
+        }
+    }
+
+    /**
+     * The catalog currently in use. Hold on to the returned snapshot to get consistent answers across several lookups.
+     */
+    public ItemCatalog getCatalog() {
+        return catalog;
+    }
+
+    private void buildPrototypes(ItemCatalog catalog) {
+        for (ItemDefinition definition : catalog.getDefinitions()) {
+            catalog.getPrototypes().computeIfAbsent(definition, d -> buildItem(catalog, d));
+        }
+        plugin.getDebugLogger().log(Category.RENDER, "Built {} item prototypes", catalog.getPrototypes().size());
+    }
+
+    /**
+     * Apply changes to individual item files on top of the current catalog. Definitions whose
+     * content did not change keep their instance, so their prototypes and cached components stay warm.
+     * Must run on the main thread.
+     * @param changed Added or modified files, already read by {@link ItemParser#readFile}
+     * @param removed Paths, relative to the items directory, of deleted files or directories
+     */
+    public void applyFileChanges(List<ItemParser.ParsedFile> changed, Collection<String> removed) {
+        ItemCatalog current = catalog;
+        Map<String, ItemCatalog.SourceFile> files = new TreeMap<>(ItemCatalog.PATH_ORDER);
+        files.putAll(current.getFiles());
+
+        for (String path : removed) {
+            files.keySet().removeIf(existing -> existing.equals(path) || existing.startsWith(path + "/"));
+        }
+
+        for (ItemParser.ParsedFile parsed : changed) {
+            String path = relativePath(parsed.getCategory(), parsed.getFile().getName());
+            if (parsed.isFailed()) {
+                plugin.getLogger().warning("Failed to parse item file " + path + ", keeping its previous items: "
+                        + parsed.getError().getMessage());
+                continue;
+            }
+
+            Map<String, ItemDefinition> definitions = new LinkedHashMap<>();
+            for (Map.Entry<String, ItemDefinition> entry : parser.resolve(parsed, lazyLoading).entrySet()) {
+                ItemDefinition existing = current.getDefinition(entry.getKey());
+                definitions.put(entry.getKey(), entry.getValue().equals(existing) ? existing : entry.getValue());
+            }
+            files.put(path, new ItemCatalog.SourceFile(path, parsed.getFile(), parsed.getCategory(), definitions));
+        }
+
+        ItemCatalog next = new ItemCatalog(files.values());
+
+        List<String> added = new ArrayList<>();
+        List<String> modified = new ArrayList<>();
+        List<String> deleted = new ArrayList<>();
+        for (ItemDefinition definition : next.getDefinitions()) {
+            ItemDefinition previous = current.getDefinition(definition.getId());
+            if (previous == null) {
+                added.add(definition.getId());
+            } else if (previous != definition) {
+                modified.add(definition.getId());
+            } else {
+                ItemStack prototype = current.getPrototypes().get(definition);
+                if (prototype != null) {
+                    next.getPrototypes().put(definition, prototype);
+                }
+                LoreTemplate template = current.getLoreTemplates().get(definition);
+                if (template != null) {
+                    next.getLoreTemplates().put(definition, template);
+                }
+            }
+        }
+        for (String id : current.getIds()) {
+            if (next.getDefinition(id) == null) {
+                deleted.add(id);
+            }
+        }
+
+        for (String warning : next.getWarnings()) {
+            if (!current.getWarnings().contains(warning)) {
+                plugin.getLogger().warning(warning);
+            }
+        }
+
+        if (prototypesEnabled && !lazyLoading) {
+            buildPrototypes(next);
+        }
 
-        plugin.getLogger().info("Loaded " + itemDefinitions.size() + " custom items");
+        catalog = next;
+        cooldownTracker.apply(next);
+        recipeManager.apply(next);
+        if (added.isEmpty() && modified.isEmpty() && deleted.isEmpty()) {
+            plugin.getDebugLogger().log(Category.PARSER, "Item files changed but no definitions differ");
+        } else {
+            plugin.getLogger().info("Hot reloaded items: added " + added + ", changed " + modified + ", removed " + deleted);
+        }
     }
 
-    private void loadItemsFromDirectory(File directory, String category) {
+    /**
+     * Start, restart or stop the items directory watcher to match the config
+     */
+    public void updateWatcher() {
+        if (watcher != null) {
+            watcher.stop();
+            watcher = null;
+        }
+        if (!plugin.getConfig().getBoolean("watcher.enabled", false)) {
+            return;
+        }
+
+        ItemWatcher newWatcher = new ItemWatcher(plugin, this, parser,
+                new File(plugin.getDataFolder(), "items").toPath(),
+                plugin.getConfig().getLong("watcher.debounce-ms", 500));
+        try {
+            newWatcher.start();
+            watcher = newWatcher;
+        } catch (IOException e) {
+            newWatcher.stop();
+            plugin.getLogger().warning("Failed to start the item watcher: " + e.getMessage());
+        }
+    }
+
+    public void shutdown() {
+        if (warmUp != null) {
+            warmUp.cancel();
+            warmUp = null;
+        }
+        distributionScheduler.shutdown();
+        recipeManager.shutdown();
+        cooldownTracker.shutdown();
+        placedBlockTracker.shutdown();
+        if (watcher != null) {
+            watcher.stop();
+            watcher = null;
+        }
+    }
+
+    private static String relativePath(String category, String fileName) {
+        return category == null || category.isEmpty() ? fileName : category + "/" + fileName;
+    }
+
+    /**
+     * Parse the items directory into a new catalog
+     * @return The catalog, or null if a file failed to parse and a previous catalog should be kept
+     */
+    private ItemCatalog loadCatalog(File directory) {
+        List<ItemFile> files = new ArrayList<>();
+        collectItemFiles(directory, "", files);
+
+        long start = System.nanoTime();
+        boolean useCompiled = plugin.getConfig().getBoolean("cache.compiled-catalog", true);
+        Map<String, ItemParser.ParsedFile> compiled = useCompiled ? itemCache.read(directory) : Collections.emptyMap();
+        List<ItemParser.ParsedFile> parsedFiles = readItemFiles(files, compiled);
+        long readNanos = System.nanoTime() - start;
+
+        List<ItemParser.ParsedFile> failed = new ArrayList<>();
+        for (ItemParser.ParsedFile parsed : parsedFiles) {
+            if (parsed.isFailed()) {
+                failed.add(parsed);
+            }
+        }
+        if (!failed.isEmpty() && catalog != ItemCatalog.EMPTY) {
+            for (ItemParser.ParsedFile parsed : failed) {
+                plugin.getLogger().severe("Failed to parse item file " + parsed.getFile().getName() + ": " + parsed.getError().getMessage());
+            }
+            plugin.getLogger().severe(failed.size() + " item file(s) failed to parse, keeping the previous catalog of " + catalog.size() + " items");
+            return null;
+        }
+
+        // Resolve on the main thread in file order; the catalog merges them so later files deterministically win duplicate ids
+        List<ItemCatalog.SourceFile> sourceFiles = new ArrayList<>(parsedFiles.size());
+        long parseNanos = 0;
+        for (int i = 0; i < parsedFiles.size(); i++) {
+            ItemParser.ParsedFile parsed = parsedFiles.get(i);
+            Map<String, ItemDefinition> fileDefinitions = parser.resolve(parsed, lazyLoading);
+            sourceFiles.add(new ItemCatalog.SourceFile(files.get(i).path, parsed.getFile(), parsed.getCategory(), fileDefinitions));
+            parseNanos += parsed.getParseNanos();
+            plugin.getDebugLogger().log(Category.PARSER, "Loaded {} items from {} in {}",
+                    fileDefinitions.size(), parsed.getFile().getName(), formatNanos(parsed.getParseNanos()));
+        }
+
+        int compiledCount = 0;
+        for (ItemParser.ParsedFile parsed : parsedFiles) {
+            if (parsed.isCompiled()) compiledCount++;
+        }
+        plugin.getLogger().info("Parsed " + files.size() + " item files in " + formatNanos(System.nanoTime() - start)
+                + " (read " + formatNanos(readNanos) + " wall, " + formatNanos(parseNanos) + " total file time, "
+                + compiledCount + " from compiled cache)");
+
+        if (useCompiled && (compiledCount != parsedFiles.size() || compiled.size() != parsedFiles.size())) {
+            writeCompiledCatalog(files, parsedFiles);
+        }
+        return new ItemCatalog(sourceFiles);
+    }
+
+    private void collectItemFiles(File directory, String category, List<ItemFile> result) {
         File[] files = directory.listFiles();
         if (files == null) return;
 
+        Arrays.sort(files, Comparator.comparing(File::getName));
         for (File file : files) {
             if (file.isDirectory()) {
                 String newCategory = category.isEmpty() ? file.getName() : category + "/" + file.getName();
-                loadItemsFromDirectory(file, newCategory);
+                collectItemFiles(file, newCategory, result);
             } else if (file.getName().endsWith(".yml")) {
-                Map<String, ItemDefinition> definitions = parser.parseFile(file, category);
-                itemDefinitions.putAll(definitions);
-                plugin.debug("Loaded " + definitions.size() + " items from " + file.getName());
+                result.add(new ItemFile(file, category, relativePath(category, file.getName())));
             }
         }
     }
 
+    private void writeCompiledCatalog(List<ItemFile> files, List<ItemParser.ParsedFile> parsedFiles) {
+        Map<String, ItemParser.ParsedFile> byPath = new LinkedHashMap<>();
+        for (int i = 0; i < files.size(); i++) {
+            byPath.put(files.get(i).path, parsedFiles.get(i));
+        }
+
+        // Parsed files are immutable, so the cache can be written off the main thread
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                itemCache.write(byPath);
+                plugin.getDebugLogger().log(Category.PARSER, "Wrote compiled item catalog with {} files", byPath.size());
+            } catch (IOException e) {
+                plugin.getLogger().warning("Failed to write the compiled item catalog: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Read and YAML-parse the given files across a worker pool, reusing compiled results for
+     * files whose fingerprint is unchanged. Results are returned in input order.
+     */
+    private List<ItemParser.ParsedFile> readItemFiles(List<ItemFile> files, Map<String, ItemParser.ParsedFile> compiled) {
+        int parallelism = plugin.getConfig().getInt("loading.parallelism", 0);
+        if (parallelism <= 0) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        parallelism = Math.min(parallelism, files.size());
+
+        List<ItemParser.ParsedFile> parsed = new ArrayList<>(files.size());
+        if (parallelism <= 1) {
+            for (ItemFile file : files) {
+                parsed.add(parser.readFile(file.file, file.category, compiled.get(file.path)));
+            }
+            return parsed;
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "ItemX-Parser-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<ItemParser.ParsedFile>> futures = new ArrayList<>(files.size());
+            for (ItemFile file : files) {
+                futures.add(executor.submit(() -> parser.readFile(file.file, file.category, compiled.get(file.path))));
+            }
+            for (Future<ItemParser.ParsedFile> future : futures) {
+                parsed.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while parsing item files", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to parse item files", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return parsed;
+    }
+
+    private static String formatNanos(long nanos) {
+        return String.format("%.1fms", nanos / 1_000_000.0);
+    }
+
+    private static final class ItemFile {
+        private final File file;
+        private final String category;
+        private final String path;
+
+        private ItemFile(File file, String category, String path) {
+            this.file = file;
+            this.category = category;
+            this.path = path;
+        }
+    }
+
     private void createExampleItems() {
         // Create tools category with multiple files
         createToolsExamples();
@@ -308,7 +706,15 @@ public class ItemManager implements Listener {
               armor-trim:
                 pattern: vex
                 material: emerald
-            
+              recipe:
+                type: shaped
+                shape:
+                  - "I I"
+                  - "E E"
+                ingredients:
+                  I: IRON_INGOT
+                  E: EMERALD
+
             chainmail_helmet:
               material: CHAINMAIL_HELMET
               name: "&7Chainmail Helmet"
@@ -328,29 +734,234 @@ public class ItemManager implements Listener {
         }
     }
 
+    /**
+     * Look up a definition by item id. In lazy mode this is where a definition is resolved and checked on first use.
+     */
     public ItemDefinition getItemDefinition(String id) {
-        return itemDefinitions.get(id);
+        ItemDefinition definition = catalog.getDefinition(id);
+        if (definition != null) {
+            definition.materialize();
+        }
+        return definition;
     }
 
     public Set<String> getItemIds() {
-        return itemDefinitions.keySet();
+        return catalog.getIds();
     }
 
+    /**
+     * Every category path, including parents that only hold subcategories, in sorted order
+     */
     public Set<String> getCategories() {
-        return itemDefinitions.values().stream()
-                .map(ItemDefinition::getCategory)
-                .filter(Objects::nonNull)
-                .filter(cat -> !cat.isEmpty())
-                .collect(Collectors.toSet());
+        return catalog.getCategoryIndex().getCategories();
     }
 
+    /**
+     * Items directly in a category, iterating in id order. A null or empty category means the items
+     * in the root of the items directory.
+     */
     public Set<ItemDefinition> getItemsByCategory(String category) {
-        return itemDefinitions.values().stream()
-                .filter(def -> Objects.equals(def.getCategory(), category))
-                .collect(Collectors.toSet());
+        return catalog.getCategoryIndex().getItemSet(category);
+    }
+
+    /**
+     * Items directly in a category, sorted by id. A null or empty category means the root of the items directory.
+     */
+    public List<ItemDefinition> getSortedItemsByCategory(String category) {
+        return catalog.getCategoryIndex().getItems(category);
     }
 
+    /**
+     * Items in a category and all of its subcategories, so {@code weapons} includes {@code weapons/bows}
+     */
+    public List<ItemDefinition> getItemsInCategoryTree(String category) {
+        return catalog.getCategoryIndex().getSubtreeItems(category);
+    }
+
+    public int getCategoryCount(String category) {
+        return catalog.getCategoryIndex().getCount(category);
+    }
+
+    public int getCategoryTreeCount(String category) {
+        return catalog.getCategoryIndex().getSubtreeCount(category);
+    }
+
+    /**
+     * Count, find and remove ItemX items in inventories by item id
+     */
+    public InventoryScanner getInventoryScanner() {
+        return inventoryScanner;
+    }
+
+    public int countItems(Inventory inventory, String itemId) {
+        return inventoryScanner.count(inventory, itemId);
+    }
+
+    public Map<String, Integer> countItems(Inventory inventory, Collection<String> itemIds) {
+        return inventoryScanner.count(inventory, itemIds);
+    }
+
+    /**
+     * Remove up to {@code amount} of an item
+     * @return The amount removed
+     */
+    public int removeItems(Inventory inventory, String itemId, int amount) {
+        return inventoryScanner.remove(inventory, Map.of(itemId, amount)).get(itemId);
+    }
+
+    /**
+     * Remove several items only if all of them are available
+     * @return True if they were removed
+     */
+    public boolean takeItems(Inventory inventory, Map<String, Integer> amounts) {
+        return inventoryScanner.take(inventory, amounts);
+    }
+
+    public ItemUpdater getItemUpdater() {
+        return itemUpdater;
+    }
+
+    public CooldownTracker getCooldownTracker() {
+        return cooldownTracker;
+    }
+
+    public PlacedBlockTracker getPlacedBlockTracker() {
+        return placedBlockTracker;
+    }
+
+    public RecipeManager getRecipeManager() {
+        return recipeManager;
+    }
+
+    public DistributionScheduler getDistributionScheduler() {
+        return distributionScheduler;
+    }
+
+    /**
+     * Give a single definition
+     * @see #giveItems(Player, Map, boolean)
+     */
+    public List<ItemStack> giveItem(Player player, ItemDefinition definition, int amount, boolean dropOverflow) {
+        return giveItems(player, Collections.singletonMap(definition, amount), dropOverflow);
+    }
+
+    /**
+     * Give several items at once. Each definition is built once, merged into matching stacks and then
+     * empty slots of a copy of the storage contents, and written back with a single inventory update.
+     * @param player The player to give to
+     * @param amounts How many of each definition to give, in the order to place them
+     * @param dropOverflow Drop what does not fit at the player's feet instead of returning it
+     * @return The stacks that did not fit; empty when they were dropped
+     */
+    public List<ItemStack> giveItems(Player player, Map<ItemDefinition, Integer> amounts, boolean dropOverflow) {
+        PlayerInventory inventory = player.getInventory();
+        ItemStack[] contents = inventory.getStorageContents();
+        List<ItemStack> overflow = new ArrayList<>();
+
+        for (Map.Entry<ItemDefinition, Integer> entry : amounts.entrySet()) {
+            int remaining = entry.getValue();
+            if (remaining <= 0) continue;
+
+            ItemStack prototype = createItem(entry.getKey());
+            int maxStackSize = Math.max(1, prototype.getMaxStackSize());
+
+            // Top up partial stacks first, then fill empty slots, in slot order like addItem
+            for (int i = 0; i < contents.length && remaining > 0; i++) {
+                ItemStack stack = contents[i];
+                if (stack == null || stack.getType() != prototype.getType()) continue;
+                int space = maxStackSize - stack.getAmount();
+                if (space > 0 && stack.isSimilar(prototype)) {
+                    int added = Math.min(space, remaining);
+                    stack.setAmount(stack.getAmount() + added);
+                    remaining -= added;
+                }
+            }
+            for (int i = 0; i < contents.length && remaining > 0; i++) {
+                if (contents[i] == null || contents[i].getType().isAir()) {
+                    contents[i] = stackOf(prototype, Math.min(maxStackSize, remaining));
+                    remaining -= contents[i].getAmount();
+                }
+            }
+            while (remaining > 0) {
+                ItemStack stack = stackOf(prototype, Math.min(maxStackSize, remaining));
+                overflow.add(stack);
+                remaining -= stack.getAmount();
+            }
+        }
+
+        inventory.setStorageContents(contents);
+
+        if (dropOverflow && !overflow.isEmpty()) {
+            for (ItemStack stack : overflow) {
+                player.getWorld().dropItem(player.getLocation(), stack);
+            }
+            plugin.getDebugLogger().log(Category.EVENTS, "Dropped {} overflow stacks for {}", overflow.size(), player.getName());
+            return Collections.emptyList();
+        }
+        return overflow;
+    }
+
+    private static ItemStack stackOf(ItemStack prototype, int amount) {
+        ItemStack stack = prototype.clone();
+        stack.setAmount(amount);
+        return stack;
+    }
+
+    /**
+     * Create a new stack for a definition. When prototype caching is enabled the
+     * stack is cloned from a prototype built once per definition at load time.
+     * @param definition The definition to create
+     * @return A new, independently modifiable ItemStack
+     */
     public ItemStack createItem(ItemDefinition definition) {
+        Metrics metrics = plugin.getMetrics();
+        long start = metrics.start();
+        long allocated = metrics.allocatedBytes();
+        try {
+            ItemStack item = cloneOrBuild(definition);
+            if (loreTemplate(catalog, definition).isDynamic()) {
+                refreshLore(item);
+            }
+            return item;
+        } finally {
+            metrics.record(Metrics.Timer.CREATE_ITEM, start, allocated);
+        }
+    }
+
+    private ItemStack cloneOrBuild(ItemDefinition definition) {
+        if (!prototypesEnabled) {
+            return buildItem(catalog, definition);
+        }
+
+        ItemCatalog current = catalog;
+        ItemStack prototype = current.getPrototypes().get(definition);
+        if (prototype != null) {
+            prototypeHits.increment();
+            return prototype.clone();
+        }
+
+        prototypeMisses.increment();
+        prototype = buildItem(current, definition);
+        // Only cache definitions that are still live so stale ones from before a reload can't pile up
+        if (current.contains(definition)) {
+            current.getPrototypes().putIfAbsent(definition, prototype);
+        }
+        return prototype.clone();
+    }
+
+    public long getPrototypeHits() {
+        return prototypeHits.sum();
+    }
+
+    public long getPrototypeMisses() {
+        return prototypeMisses.sum();
+    }
+
+    public int getPrototypeCount() {
+        return catalog.getPrototypes().size();
+    }
+
+    private ItemStack buildItem(ItemCatalog owner, ItemDefinition definition) {
         ItemStack item = new ItemStack(definition.getMaterial());
         ItemMeta meta = item.getItemMeta();
 
@@ -360,10 +971,12 @@ public class ItemManager implements Listener {
         }
 
         // Set display name
+        LoreTemplate template = loreTemplate(owner, definition);
+        String[] values = template.emptyValues();
         if (definition.getName() != null && !definition.getName().isEmpty()) {
-            Component nameComponent = plugin.getColorUtil().parseColor(definition.getName());
+            Component nameComponent = template.renderName(values);
             meta.displayName(nameComponent);
-            plugin.debug("Set display name for " + definition.getId() + ": " + definition.getName());
+            plugin.getDebugLogger().log(Category.RENDER, "Set display name for {}: {}", definition.getId(), definition.getName());
         }
 
         // Set unbreakable
@@ -381,7 +994,7 @@ public class ItemManager implements Listener {
 
         // Add armor trim if applicable - do this after setting the meta
         if (definition.getArmorTrim() != null) {
-            plugin.debug("Attempting to apply armor trim to " + definition.getId());
+            plugin.getDebugLogger().log(Category.RENDER, "Attempting to apply armor trim to {}", definition.getId());
 
             // Get fresh meta after setting it
             ItemMeta freshMeta = item.getItemMeta();
@@ -394,14 +1007,14 @@ public class ItemManager implements Listener {
                     // Apply the armor meta back to the item
                     item.setItemMeta(armorMeta);
 
-                    plugin.debug("Successfully applied armor trim to " + definition.getId() + ": " +
-                            definition.getArmorTrim().getPattern().key() + " + " +
+                    plugin.getDebugLogger().log(Category.RENDER, "Successfully applied armor trim to {}: {} + {}",
+                            definition.getId(), definition.getArmorTrim().getPattern().key(),
                             definition.getArmorTrim().getMaterial().key());
 
                     // Verify the trim was applied
                     ArmorMeta verifyMeta = (ArmorMeta) item.getItemMeta();
                     if (verifyMeta.hasTrim()) {
-                        plugin.debug("Armor trim verified on " + definition.getId());
+                        plugin.getDebugLogger().log(Category.RENDER, "Armor trim verified on {}", definition.getId());
                     } else {
                         plugin.getLogger().warning("Armor trim not found after applying to " + definition.getId());
                     }
@@ -421,19 +1034,19 @@ public class ItemManager implements Listener {
         // Handle lore based on use-vanilla-lore setting
         if (definition.isUseVanillaLore()) {
             // Use vanilla lore - preserve all vanilla tooltips and add custom lore
-            handleVanillaLore(item, definition);
+            handleVanillaLore(item, definition, template.renderLore(values));
         } else {
             // Use custom lore only - hide vanilla tooltips
-            handleCustomLore(item, definition);
+            handleCustomLore(item, definition, template.renderLore(values));
         }
 
         // Add NBT identification
-        nbtUtil.setItemId(item, definition.getFullNbtId());
+        nbtUtil.setItemId(item, definition.getFullNbtId(), definition.getContentHash());
 
         return item;
     }
 
-    private void handleVanillaLore(ItemStack item, ItemDefinition definition) {
+    private void handleVanillaLore(ItemStack item, ItemDefinition definition, List<Component> lore) {
         ItemMeta meta = item.getItemMeta();
         if (meta == null) return;
 
@@ -446,9 +1059,7 @@ public class ItemManager implements Listener {
             List<Component> customLore = new ArrayList<>();
 
             // Add custom lore first
-            for (String loreLine : definition.getLore()) {
-                customLore.add(plugin.getColorUtil().parseColor(loreLine));
-            }
+            customLore.addAll(lore);
 
             // Add vanilla lore if it exists
             if (existingLore != null && !existingLore.isEmpty()) {
@@ -463,17 +1074,13 @@ public class ItemManager implements Listener {
         // Don't add any ItemFlags - let vanilla display everything
     }
 
-    private void handleCustomLore(ItemStack item, ItemDefinition definition) {
+    private void handleCustomLore(ItemStack item, ItemDefinition definition, List<Component> lore) {
         ItemMeta meta = item.getItemMeta();
         if (meta == null) return;
 
         // Set custom lore
         if (definition.getLore() != null && !definition.getLore().isEmpty()) {
-            List<Component> loreComponents = new ArrayList<>();
-            for (String loreLine : definition.getLore()) {
-                loreComponents.add(plugin.getColorUtil().parseColor(loreLine));
-            }
-            meta.lore(loreComponents);
+            meta.lore(lore);
         }
 
         // Hide vanilla information EXCEPT armor trim
@@ -490,6 +1097,101 @@ public class ItemManager implements Listener {
         item.setItemMeta(meta);
     }
 
+    /**
+     * Register a value source for {@code %name%} in item names and lore. Replaces any previous source of the same name.
+     */
+    public void registerLorePlaceholder(String name, LorePlaceholder placeholder) {
+        lorePlaceholders.put(name, placeholder);
+    }
+
+    public void unregisterLorePlaceholder(String name) {
+        lorePlaceholders.remove(name);
+    }
+
+    /**
+     * Whether a definition's name or lore contains placeholders
+     */
+    public boolean hasDynamicLore(ItemDefinition definition) {
+        return loreTemplate(catalog, definition).isDynamic();
+    }
+
+    /**
+     * Re-render the name and lore of an ItemX stack from its current placeholder values. The stack is only
+     * written to when the values, or the definition they render, changed since the last refresh.
+     * @param item The stack to refresh in place
+     * @return True if the stack was changed
+     */
+    public boolean refreshLore(ItemStack item) {
+        if (item == null || !item.hasItemMeta()) return false;
+
+        ItemMeta meta = item.getItemMeta();
+        NBTUtil.ItemData data = nbtUtil.read(meta);
+        String itemId = data.getItemId();
+        if (itemId == null) return false;
+
+        ItemCatalog current = catalog;
+        ItemDefinition definition = current.getDefinitionByNbtId(itemId);
+        if (definition == null) return false;
+
+        LoreTemplate template = loreTemplate(current, definition);
+        if (!template.isDynamic()) return false;
+
+        String[] values = template.resolve(item, data, lorePlaceholders);
+        long hash = template.hash(values);
+        PersistentDataContainer container = meta.getPersistentDataContainer();
+        Long previous = container.get(nbtUtil.getLoreHashKey(), PersistentDataType.LONG);
+        if (previous != null && previous == hash) return false;
+
+        Component name = template.renderName(values);
+        if (name != null) {
+            meta.displayName(name);
+        }
+        if (template.getLoreSize() > 0) {
+            List<Component> lore = template.renderLore(values);
+            if (definition.isUseVanillaLore()) {
+                // Keep whatever follows our lines
+                List<Component> existing = meta.lore();
+                if (existing != null && existing.size() > template.getLoreSize()) {
+                    lore.addAll(existing.subList(template.getLoreSize(), existing.size()));
+                }
+            }
+            meta.lore(lore);
+        }
+        container.set(nbtUtil.getLoreHashKey(), PersistentDataType.LONG, hash);
+        item.setItemMeta(meta);
+        plugin.getDebugLogger().log(Category.RENDER, "Refreshed lore of {}", definition.getId());
+        return true;
+    }
+
+    /**
+     * Refresh every ItemX stack in an inventory
+     * @return The number of stacks that changed
+     */
+    public int refreshLore(Inventory inventory) {
+        ItemStack[] contents = inventory.getContents();
+        int changed = 0;
+        for (int slot = 0; slot < contents.length; slot++) {
+            ItemStack item = contents[slot];
+            if (item != null && refreshLore(item)) {
+                inventory.setItem(slot, item);
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    private LoreTemplate loreTemplate(ItemCatalog current, ItemDefinition definition) {
+        LoreTemplate template = current.getLoreTemplates().get(definition);
+        if (template == null) {
+            template = new LoreTemplate(definition, plugin.getColorUtil());
+            // Like prototypes, only definitions of the live catalog are cached
+            if (current.contains(definition)) {
+                current.getLoreTemplates().putIfAbsent(definition, template);
+            }
+        }
+        return template;
+    }
+
     public boolean isCustomItem(ItemStack item) {
         return nbtUtil.hasItemId(item);
     }
@@ -498,42 +1200,87 @@ public class ItemManager implements Listener {
         return nbtUtil.getItemId(item);
     }
 
-    @EventHandler
-    public void onBlockPlace(BlockPlaceEvent event) {
-        ItemStack item = event.getItemInHand();
-        if (!isCustomItem(item)) return;
+    /**
+     * Resolve the definition behind a stack with a single read of its data
+     * @return The definition, or null if the stack is not a loaded ItemX item
+     */
+    public ItemDefinition getCustomDefinition(ItemStack item) {
+        String itemId = nbtUtil.getItemId(item);
+        return itemId != null ? findDefinitionByNbtId(itemId) : null;
+    }
 
-        String itemId = getCustomItemId(item);
-        if (itemId == null) return;
+    /**
+     * Take one snapshot of a stack's ItemX data, to read its id and custom keys without copying the meta again
+     */
+    public NBTUtil.ItemData readItemData(ItemStack item) {
+        return nbtUtil.read(item);
+    }
 
-        // Find the definition to check if use is disabled
-        ItemDefinition definition = findDefinitionByNbtId(itemId);
-        if (definition != null && definition.isDisableUse()) {
+    @EventHandler
+    public void onBlockPlace(BlockPlaceEvent event) {
+        long start = plugin.getMetrics().start();
+        ItemDefinition definition = findDisabledDefinition(event.getItemInHand());
+        if (definition != null) {
             event.setCancelled(true);
-            plugin.debug("Blocked placement of " + itemId + " (use disabled)");
+            plugin.getDebugLogger().log(Category.EVENTS, "Blocked placement of {} (use disabled)", definition.getFullNbtId());
         }
+        plugin.getMetrics().record(Metrics.Timer.BLOCK_PLACE, start);
     }
 
     @EventHandler
     public void onPlayerInteract(PlayerInteractEvent event) {
+        long start = plugin.getMetrics().start();
         ItemStack item = event.getItem();
-        if (item == null || !isCustomItem(item)) return;
+        ItemCatalog current = catalog;
+        // Both checks are rejected by material first, so plain items never have their meta read
+        if (item != null && (current.isDisableUseMaterial(item.getType()) || current.isCooldownMaterial(item.getType()))) {
+            String itemId = nbtUtil.getItemId(item);
+            ItemDefinition definition = itemId != null ? current.getDefinitionByNbtId(itemId) : null;
+            if (definition != null && definition.isDisableUse()) {
+                event.setCancelled(true);
+                plugin.getDebugLogger().log(Category.EVENTS, "Blocked interaction with {} (use disabled)", definition.getFullNbtId());
+            } else if (definition != null && definition.getCooldownMillis() > 0 && isUse(event.getAction())
+                    && event.useItemInHand() != Event.Result.DENY) {
+                long remaining = cooldownTracker.tryUse(event.getPlayer(), definition, current.getCooldownOrdinal(definition));
+                if (remaining > 0) {
+                    event.setCancelled(true);
+                    // Guarded so the long is only boxed when the message is actually written
+                    if (plugin.getDebugLogger().isEnabled(Category.EVENTS)) {
+                        plugin.getDebugLogger().log(Category.EVENTS, "Blocked use of {} ({}ms of cooldown left)", definition.getFullNbtId(), remaining);
+                    }
+                }
+            }
+        }
+        plugin.getMetrics().record(Metrics.Timer.INTERACT, start);
+    }
 
-        String itemId = getCustomItemId(item);
-        if (itemId == null) return;
+    /**
+     * Cooldowns apply to using an item, not to hitting with it
+     */
+    private static boolean isUse(Action action) {
+        return action == Action.RIGHT_CLICK_AIR || action == Action.RIGHT_CLICK_BLOCK;
+    }
 
-        // Find the definition to check if use is disabled
-        ItemDefinition definition = findDefinitionByNbtId(itemId);
-        if (definition != null && definition.isDisableUse()) {
-            event.setCancelled(true);
-            plugin.debug("Blocked interaction with " + itemId + " (use disabled)");
-        }
+    /**
+     * Resolve the disable-use definition behind a stack, if any. Stacks whose material
+     * has no disable-use definition are rejected without touching their meta.
+     */
+    private ItemDefinition findDisabledDefinition(ItemStack item) {
+        ItemCatalog current = catalog;
+        if (item == null || !current.isDisableUseMaterial(item.getType())) return null;
+
+        String itemId = nbtUtil.getItemId(item);
+        if (itemId == null) return null;
+
+        ItemDefinition definition = current.getDefinitionByNbtId(itemId);
+        return definition != null && definition.isDisableUse() ? definition : null;
     }
 
-    private ItemDefinition findDefinitionByNbtId(String nbtId) {
-        return itemDefinitions.values().stream()
-                .filter(def -> def.getFullNbtId().equals(nbtId))
-                .findFirst()
-                .orElse(null);
+    public ItemDefinition findDefinitionByNbtId(String nbtId) {
+        ItemDefinition definition = catalog.getDefinitionByNbtId(nbtId);
+        if (definition != null) {
+            definition.materialize();
+        }
+        return definition;
     }
 }
\ No newline at end of file
@@ -1,132 +1,348 @@
 package com.itemx.item;
 
 import com.itemx.ItemX;
+import com.itemx.util.DebugLogger.Category;
+import com.itemx.util.Metrics;
 import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
 import org.bukkit.Registry;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.inventory.meta.trim.TrimMaterial;
 import org.bukkit.inventory.meta.trim.TrimPattern;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
 
 public class ItemParser {
 
     private final ItemX plugin;
+    // Warnings from lazily loaded definitions, which resolve long after their file was read
+    private final Queue<String> deferredWarnings = new ConcurrentLinkedQueue<>();
 
     public ItemParser(ItemX plugin) {
         this.plugin = plugin;
     }
 
+    /**
+     * Read and resolve a file in one go on the calling thread
+     * @param file The YAML file to parse
+     * @param category The category the file belongs to
+     * @return Definitions keyed by item id, in file order
+     */
     public Map<String, ItemDefinition> parseFile(File file, String category) {
-        Map<String, ItemDefinition> definitions = new HashMap<>();
+        return resolve(readFile(file, category));
+    }
+
+    /**
+     * Read a YAML file into raw item specs. Touches no Bukkit registries, so it is safe
+     * to call from parser worker threads.
+     * @param file The YAML file to read
+     * @param category The category the file belongs to
+     * @return The parsed file; failed if the YAML could not be read
+     */
+    public ParsedFile readFile(File file, String category) {
+        return readFile(file, category, null);
+    }
 
+    /**
+     * Read a YAML file into raw item specs, reusing a previously compiled result when the file's
+     * fingerprint still matches: same size and modification time, or failing that the same content hash.
+     * Safe to call from parser worker threads.
+     * @param file The YAML file to read
+     * @param category The category the file belongs to
+     * @param compiled The file as stored in the compiled catalog cache, or null
+     * @return The parsed file; failed if the YAML could not be read
+     */
+    public ParsedFile readFile(File file, String category, ParsedFile compiled) {
+        Metrics metrics = plugin.getMetrics();
+        long metricsStart = metrics.start();
+        long allocated = metrics.allocatedBytes();
         try {
-            YamlConfiguration config = YamlConfiguration.loadConfiguration(file);
+            return readFileUntimed(file, category, compiled);
+        } finally {
+            metrics.record(Metrics.Timer.PARSE_FILE, metricsStart, allocated);
+        }
+    }
+
+    private ParsedFile readFileUntimed(File file, String category, ParsedFile compiled) {
+        long start = System.nanoTime();
+        List<ItemSpec> specs = new ArrayList<>();
+        List<String> warnings = new ArrayList<>();
+        long lastModified = file.lastModified();
+        long size = file.length();
+        long contentHash = 0;
+
+        try {
+            if (compiled != null && compiled.lastModified == lastModified && compiled.size == size) {
+                return compiled.reuse(file, category, lastModified, System.nanoTime() - start, true);
+            }
+
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            contentHash = contentHash(bytes);
+            if (compiled != null && compiled.contentHash == contentHash && compiled.size == bytes.length) {
+                // Touched but unchanged, reuse the specs and record the new modification time
+                return compiled.reuse(file, category, lastModified, System.nanoTime() - start, false);
+            }
+
+            YamlConfiguration config = new YamlConfiguration();
+            config.loadFromString(new String(bytes, StandardCharsets.UTF_8));
 
             for (String key : config.getKeys(false)) {
                 if (config.isConfigurationSection(key)) {
-                    ItemDefinition definition = parseItemDefinition(key, config.getConfigurationSection(key), category);
-                    if (definition != null) {
-                        definitions.put(key, definition);
+                    ItemSpec spec = readSpec(key, config.getConfigurationSection(key), category, warnings);
+                    if (spec != null) {
+                        specs.add(spec);
                     }
                 }
             }
         } catch (Exception e) {
-            plugin.getLogger().severe("Failed to parse item file " + file.getName() + ": " + e.getMessage());
-            e.printStackTrace();
+            return new ParsedFile(file, category, specs, warnings, System.nanoTime() - start, e,
+                    lastModified, size, contentHash, false);
         }
 
-        return definitions;
+        return new ParsedFile(file, category, specs, warnings, System.nanoTime() - start, null,
+                lastModified, size, contentHash, false);
     }
 
-    private ItemDefinition parseItemDefinition(String id, org.bukkit.configuration.ConfigurationSection section, String category) {
-        try {
-            // Parse material
-            String materialName = section.getString("material");
-            if (materialName == null) {
-                plugin.getLogger().warning("Item " + id + " is missing material");
-                return null;
+    /**
+     * 64-bit FNV-1a hash of a file's bytes, used to fingerprint item files
+     */
+    static long contentHash(byte[] bytes) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private ItemSpec readSpec(String id, ConfigurationSection section, String category, List<String> warnings) {
+        String materialName = section.getString("material");
+        if (materialName == null) {
+            warnings.add("Item " + id + " is missing material");
+            return null;
+        }
+
+        Map<String, Integer> enchantments = new LinkedHashMap<>();
+        if (section.isConfigurationSection("enchants")) {
+            ConfigurationSection enchantSection = section.getConfigurationSection("enchants");
+            for (String enchantName : enchantSection.getKeys(false)) {
+                enchantments.put(enchantName, enchantSection.getInt(enchantName, 1));
             }
+        }
 
-            Material material;
-            try {
-                material = Material.valueOf(materialName.toUpperCase());
-            } catch (IllegalArgumentException e) {
-                plugin.getLogger().warning("Invalid material '" + materialName + "' for item " + id);
-                return null;
+        String trimPattern = null;
+        String trimMaterial = null;
+        if (section.isConfigurationSection("armor-trim")) {
+            ConfigurationSection trimSection = section.getConfigurationSection("armor-trim");
+            trimPattern = trimSection.getString("pattern");
+            trimMaterial = trimSection.getString("material");
+        }
+
+        return new ItemSpec(id, materialName,
+                section.getString("name", ""),
+                section.getStringList("lore"),
+                section.getBoolean("unbreakable", false),
+                section.getBoolean("use-vanilla-lore", false),
+                enchantments,
+                section.getBoolean("disable-use", false),
+                section.getString("nbt-id"),
+                trimPattern, trimMaterial, category,
+                section.isConfigurationSection("recipe") ? readRecipe(id, section.getConfigurationSection("recipe"), warnings) : null,
+                readCooldown(id, section.getString("cooldown"), warnings));
+    }
+
+    /**
+     * Read a cooldown: plain seconds ({@code 2.5}), or a number with an {@code ms}, {@code s} or {@code t} (ticks) suffix
+     * @return The cooldown in milliseconds, 0 if there is none or it is invalid
+     */
+    private long readCooldown(String id, String value, List<String> warnings) {
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+
+        String text = value.trim().toLowerCase(Locale.ROOT);
+        double unitMillis = 1000;
+        if (text.endsWith("ms")) {
+            unitMillis = 1;
+            text = text.substring(0, text.length() - 2);
+        } else if (text.endsWith("s")) {
+            text = text.substring(0, text.length() - 1);
+        } else if (text.endsWith("t")) {
+            unitMillis = 50;
+            text = text.substring(0, text.length() - 1);
+        }
+
+        try {
+            double amount = Double.parseDouble(text.trim());
+            if (amount >= 0 && !Double.isInfinite(amount)) {
+                return Math.round(amount * unitMillis);
             }
+        } catch (NumberFormatException ignored) {
+        }
+        warnings.add("Invalid cooldown '" + value + "' for item " + id + ", expected e.g. 2.5, 500ms or 40t");
+        return 0;
+    }
+
+    /**
+     * Read and check the shape of a {@code recipe:} section. Ingredients are only resolved when
+     * recipes are registered, since they may name items from other files.
+     * @return The recipe, or null if it is invalid; the item itself is still loaded
+     */
+    private RecipeSpec readRecipe(String id, ConfigurationSection section, List<String> warnings) {
+        String typeName = section.getString("type", "shaped");
+        RecipeSpec.Type type;
+        try {
+            type = RecipeSpec.Type.valueOf(typeName.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            warnings.add("Invalid recipe type '" + typeName + "' for item " + id + ", expected shaped, shapeless or smithing");
+            return null;
+        }
 
-            // Parse basic properties
-            String name = section.getString("name", "");
-            List<String> lore = section.getStringList("lore");
-            boolean unbreakable = section.getBoolean("unbreakable", false);
-            boolean useVanillaLore = section.getBoolean("use-vanilla-lore", false);
-            boolean disableUse = section.getBoolean("disable-use", false);
-            String nbtId = section.getString("nbt-id");
-
-            // Parse enchantments
-            Map<Enchantment, Integer> enchantments = new HashMap<>();
-            if (section.isConfigurationSection("enchants")) {
-                org.bukkit.configuration.ConfigurationSection enchantSection = section.getConfigurationSection("enchants");
-                for (String enchantName : enchantSection.getKeys(false)) {
-                    try {
-                        Enchantment enchantment = Registry.ENCHANTMENT.get(org.bukkit.NamespacedKey.minecraft(enchantName.toLowerCase()));
-                        if (enchantment != null) {
-                            int level = enchantSection.getInt(enchantName, 1);
-                            enchantments.put(enchantment, level);
-                        } else {
-                            plugin.getLogger().warning("Unknown enchantment '" + enchantName + "' for item " + id);
+        int amount = section.getInt("amount", 1);
+        if (amount < 1 || amount > 64) {
+            warnings.add("Invalid recipe amount " + amount + " for item " + id + ", expected 1-64");
+            return null;
+        }
+
+        switch (type) {
+            case SHAPED: {
+                List<String> shape = section.getStringList("shape");
+                if (shape.isEmpty() || shape.size() > 3) {
+                    warnings.add("Shaped recipe for item " + id + " needs 1-3 shape rows");
+                    return null;
+                }
+                Map<Character, String> keys = new LinkedHashMap<>();
+                ConfigurationSection keySection = section.getConfigurationSection("ingredients");
+                if (keySection != null) {
+                    for (String key : keySection.getKeys(false)) {
+                        if (key.length() != 1 || key.charAt(0) == ' ') {
+                            warnings.add("Invalid recipe key '" + key + "' for item " + id + ", keys are single characters");
+                            return null;
                         }
-                    } catch (Exception e) {
-                        plugin.getLogger().warning("Failed to parse enchantment '" + enchantName + "' for item " + id + ": " + e.getMessage());
+                        String ingredient = keySection.getString(key);
+                        if (ingredient == null) {
+                            warnings.add("Recipe key '" + key + "' for item " + id + " has no ingredient");
+                            return null;
+                        }
+                        keys.put(key.charAt(0), ingredient);
                     }
                 }
-            }
-
-            // Parse armor trim
-            ItemDefinition.ArmorTrimData armorTrim = null;
-            if (section.isConfigurationSection("armor-trim")) {
-                org.bukkit.configuration.ConfigurationSection trimSection = section.getConfigurationSection("armor-trim");
-                String patternName = trimSection.getString("pattern");
-                String trimMaterialName = trimSection.getString("material");
-
-                plugin.debug("Parsing armor trim for " + id + ": pattern=" + patternName + ", material=" + trimMaterialName);
-
-                if (patternName != null && trimMaterialName != null) {
-                    try {
-                        // Create NamespacedKey for pattern
-                        org.bukkit.NamespacedKey patternKey = org.bukkit.NamespacedKey.minecraft(patternName.toLowerCase());
-                        TrimPattern pattern = Registry.TRIM_PATTERN.get(patternKey);
-
-                        // Create NamespacedKey for material
-                        org.bukkit.NamespacedKey materialKey = org.bukkit.NamespacedKey.minecraft(trimMaterialName.toLowerCase());
-                        TrimMaterial trimMaterial = Registry.TRIM_MATERIAL.get(materialKey);
-
-                        if (pattern != null && trimMaterial != null) {
-                            armorTrim = new ItemDefinition.ArmorTrimData(pattern, trimMaterial);
-                            plugin.debug("Successfully parsed armor trim: " + pattern.key() + " + " + trimMaterial.key());
-                        } else {
-                            plugin.getLogger().warning("Invalid armor trim for item " + id +
-                                    " - pattern: " + (pattern != null ? "found" : "not found") +
-                                    ", material: " + (trimMaterial != null ? "found" : "not found"));
-
-                            // List available options
-                            plugin.getLogger().info("Available trim patterns:");
-                            Registry.TRIM_PATTERN.forEach(p -> plugin.getLogger().info("  - " + p.key().value()));
-                            plugin.getLogger().info("Available trim materials:");
-                            Registry.TRIM_MATERIAL.forEach(m -> plugin.getLogger().info("  - " + m.key().value()));
+                for (String row : shape) {
+                    if (row.isEmpty() || row.length() > 3) {
+                        warnings.add("Shaped recipe for item " + id + " has a row of " + row.length() + " characters, expected 1-3");
+                        return null;
+                    }
+                    if (row.length() != shape.get(0).length()) {
+                        warnings.add("Shaped recipe for item " + id + " has rows of different lengths, pad them with spaces");
+                        return null;
+                    }
+                    for (char c : row.toCharArray()) {
+                        if (c != ' ' && !keys.containsKey(c)) {
+                            warnings.add("Shaped recipe for item " + id + " uses '" + c + "' without an ingredient for it");
+                            return null;
                         }
-                    } catch (Exception e) {
-                        plugin.getLogger().warning("Failed to parse armor trim for item " + id + ": " + e.getMessage());
-                        e.printStackTrace();
                     }
                 }
+                if (String.join("", shape).isBlank()) {
+                    warnings.add("Shaped recipe for item " + id + " has an empty shape");
+                    return null;
+                }
+                return new RecipeSpec(type, shape, keys, null, null, null, null, amount);
+            }
+            case SHAPELESS: {
+                List<String> ingredients = section.getStringList("ingredients");
+                if (ingredients.isEmpty() || ingredients.size() > 9) {
+                    warnings.add("Shapeless recipe for item " + id + " needs 1-9 ingredients");
+                    return null;
+                }
+                return new RecipeSpec(type, null, null, ingredients, null, null, null, amount);
             }
+            default: {
+                String template = section.getString("template");
+                String base = section.getString("base");
+                String addition = section.getString("addition");
+                if (template == null || base == null || addition == null) {
+                    warnings.add("Smithing recipe for item " + id + " needs a template, base and addition");
+                    return null;
+                }
+                return new RecipeSpec(type, null, null, null, template, base, addition, amount);
+            }
+        }
+    }
 
-            return new ItemDefinition(id, material, name, lore, unbreakable, useVanillaLore,
-                    enchantments, disableUse, nbtId, armorTrim, category);
+    /**
+     * Resolve the specs of a parsed file against materials and Bukkit registries. Must run on the main thread.
+     * @param parsed The file read by {@link #readFile(File, String)}
+     * @return Definitions keyed by item id, in file order
+     */
+    public Map<String, ItemDefinition> resolve(ParsedFile parsed) {
+        return resolve(parsed, false);
+    }
+
+    /**
+     * Resolve the specs of a parsed file. Must run on the main thread.
+     * @param parsed The file read by {@link #readFile(File, String)}
+     * @param lazy Resolve only the material now, leaving enchantments and armor trims until each definition
+     *             is first used; warnings about them are then collected for {@link #drainDeferredWarnings()}
+     * @return Definitions keyed by item id, in file order
+     */
+    public Map<String, ItemDefinition> resolve(ParsedFile parsed, boolean lazy) {
+        Map<String, ItemDefinition> definitions = new LinkedHashMap<>();
+
+        if (parsed.getError() != null) {
+            plugin.getLogger().severe("Failed to parse item file " + parsed.getFile().getName() + ": " + parsed.getError().getMessage());
+            return definitions;
+        }
+
+        for (String warning : parsed.getWarnings()) {
+            plugin.getLogger().warning(warning);
+        }
+
+        for (ItemSpec spec : parsed.getSpecs()) {
+            ItemDefinition definition = resolveSpec(spec, lazy);
+            if (definition != null) {
+                definitions.put(spec.getId(), definition);
+            }
+        }
+
+        return definitions;
+    }
+
+    ItemDefinition resolveSpec(ItemSpec spec) {
+        return resolveSpec(spec, false);
+    }
+
+    ItemDefinition resolveSpec(ItemSpec spec, boolean lazy) {
+        String id = spec.getId();
+        try {
+            // Parse material
+            Material material;
+            try {
+                material = Material.valueOf(spec.getMaterialName().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().warning("Invalid material '" + spec.getMaterialName() + "' for item " + id);
+                return null;
+            }
+
+            if (lazy) {
+                return new ItemDefinition(id, material, spec.getName(), spec.getLore(), spec.isUnbreakable(),
+                        spec.isUseVanillaLore(), spec.isDisableUse(), spec.getNbtId(), spec.getCategory(),
+                        spec.getRecipe(), spec.getCooldownMillis(),
+                        new ItemDefinition.RegistryKeys(spec.getEnchantments(), spec.getTrimPattern(), spec.getTrimMaterial()),
+                        () -> resolveRegistryParts(spec, true));
+            }
+
+            ItemDefinition.RegistryParts parts = resolveRegistryParts(spec, false);
+            return new ItemDefinition(id, material, spec.getName(), spec.getLore(), spec.isUnbreakable(),
+                    spec.isUseVanillaLore(), parts.getEnchantments(), spec.isDisableUse(), spec.getNbtId(),
+                    parts.getArmorTrim(), spec.getCategory(), spec.getRecipe(), spec.getCooldownMillis());
 
         } catch (Exception e) {
             plugin.getLogger().severe("Failed to parse item definition " + id + ": " + e.getMessage());
@@ -134,4 +350,165 @@ public class ItemParser {
             return null;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Warnings collected from lazily loaded definitions since the last call, in the order they resolved
+     */
+    List<String> drainDeferredWarnings() {
+        List<String> warnings = new ArrayList<>();
+        String warning;
+        while ((warning = deferredWarnings.poll()) != null) {
+            warnings.add(warning);
+        }
+        return warnings;
+    }
+
+    /**
+     * Look up a spec's enchantments and armor trim in the Bukkit registries, warning about any that do not exist
+     * @param deferred Collect the warnings for {@link #drainDeferredWarnings()} instead of logging them; for lazily
+     *                 loaded definitions, which may resolve on any thread
+     */
+    private ItemDefinition.RegistryParts resolveRegistryParts(ItemSpec spec, boolean deferred) {
+        String id = spec.getId();
+        Consumer<String> warnings = deferred ? deferredWarnings::add : plugin.getLogger()::warning;
+        // Parse enchantments
+        Map<Enchantment, Integer> enchantments = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : spec.getEnchantments().entrySet()) {
+            String enchantName = entry.getKey();
+            try {
+                Enchantment enchantment = Registry.ENCHANTMENT.get(NamespacedKey.minecraft(enchantName.toLowerCase()));
+                if (enchantment != null) {
+                    enchantments.put(enchantment, entry.getValue());
+                } else {
+                    warnings.accept("Unknown enchantment '" + enchantName + "' for item " + id);
+                }
+            } catch (Exception e) {
+                warnings.accept("Failed to parse enchantment '" + enchantName + "' for item " + id + ": " + e.getMessage());
+            }
+        }
+
+        // Parse armor trim
+        ItemDefinition.ArmorTrimData armorTrim = null;
+        String patternName = spec.getTrimPattern();
+        String trimMaterialName = spec.getTrimMaterial();
+        if (patternName != null || trimMaterialName != null) {
+            plugin.getDebugLogger().log(Category.PARSER, "Parsing armor trim for {}: pattern={}, material={}", id, patternName, trimMaterialName);
+        }
+
+        if (patternName != null && trimMaterialName != null) {
+            try {
+                // Create NamespacedKey for pattern
+                NamespacedKey patternKey = NamespacedKey.minecraft(patternName.toLowerCase());
+                TrimPattern pattern = Registry.TRIM_PATTERN.get(patternKey);
+
+                // Create NamespacedKey for material
+                NamespacedKey materialKey = NamespacedKey.minecraft(trimMaterialName.toLowerCase());
+                TrimMaterial trimMaterial = Registry.TRIM_MATERIAL.get(materialKey);
+
+                if (pattern != null && trimMaterial != null) {
+                    armorTrim = new ItemDefinition.ArmorTrimData(pattern, trimMaterial);
+                    plugin.getDebugLogger().log(Category.PARSER, "Successfully parsed armor trim: {} + {}", pattern.key(), trimMaterial.key());
+                } else {
+                    warnings.accept("Invalid armor trim for item " + id +
+                            " - pattern: " + (pattern != null ? "found" : "not found") +
+                            ", material: " + (trimMaterial != null ? "found" : "not found"));
+
+                    // List available options, unless this runs whenever the item happens to be first used
+                    if (!deferred) {
+                        plugin.getLogger().info("Available trim patterns:");
+                        Registry.TRIM_PATTERN.forEach(p -> plugin.getLogger().info("  - " + p.key().value()));
+                        plugin.getLogger().info("Available trim materials:");
+                        Registry.TRIM_MATERIAL.forEach(m -> plugin.getLogger().info("  - " + m.key().value()));
+                    }
+                }
+            } catch (Exception e) {
+                warnings.accept("Failed to parse armor trim for item " + id + ": " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+
+        return new ItemDefinition.RegistryParts(enchantments, armorTrim);
+    }
+
+    /**
+     * The result of reading one item file: its specs, any warnings to report on the main thread,
+     * how long it took and the fingerprint of the file it was read from
+     */
+    public static class ParsedFile {
+        private final File file;
+        private final String category;
+        private final List<ItemSpec> specs;
+        private final List<String> warnings;
+        private final long parseNanos;
+        private final Exception error;
+        private final long lastModified;
+        private final long size;
+        private final long contentHash;
+        private final boolean compiled;
+
+        ParsedFile(File file, String category, List<ItemSpec> specs, List<String> warnings, long parseNanos, Exception error,
+                   long lastModified, long size, long contentHash, boolean compiled) {
+            this.file = file;
+            this.category = category;
+            this.specs = specs;
+            this.warnings = warnings;
+            this.parseNanos = parseNanos;
+            this.error = error;
+            this.lastModified = lastModified;
+            this.size = size;
+            this.contentHash = contentHash;
+            this.compiled = compiled;
+        }
+
+        private ParsedFile reuse(File file, String category, long lastModified, long parseNanos, boolean unchanged) {
+            return new ParsedFile(file, category, specs, warnings, parseNanos, null, lastModified, size, contentHash, unchanged);
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        List<ItemSpec> getSpecs() {
+            return specs;
+        }
+
+        public List<String> getWarnings() {
+            return warnings;
+        }
+
+        public long getParseNanos() {
+            return parseNanos;
+        }
+
+        public Exception getError() {
+            return error;
+        }
+
+        public boolean isFailed() {
+            return error != null;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getContentHash() {
+            return contentHash;
+        }
+
+        /**
+         * Whether this result came unchanged from the compiled catalog cache, with a matching fingerprint
+         */
+        public boolean isCompiled() {
+            return compiled;
+        }
+    }
+}
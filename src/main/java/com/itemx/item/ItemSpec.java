@@ -0,0 +1,102 @@
+package com.itemx.item;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Raw item data as read from YAML, before anything is resolved against Bukkit registries.
+ * Specs are built on parser worker threads and turned into {@link ItemDefinition}s on the main thread.
+ */
+final class ItemSpec {
+
+    private final String id;
+    private final String materialName;
+    private final String name;
+    private final List<String> lore;
+    private final boolean unbreakable;
+    private final boolean useVanillaLore;
+    private final Map<String, Integer> enchantments;
+    private final boolean disableUse;
+    private final String nbtId;
+    private final String trimPattern;
+    private final String trimMaterial;
+    private final String category;
+    private final RecipeSpec recipe;
+    private final long cooldownMillis;
+
+    ItemSpec(String id, String materialName, String name, List<String> lore,
+             boolean unbreakable, boolean useVanillaLore,
+             Map<String, Integer> enchantments, boolean disableUse,
+             String nbtId, String trimPattern, String trimMaterial, String category, RecipeSpec recipe, long cooldownMillis) {
+        this.id = id;
+        this.materialName = materialName;
+        this.name = name;
+        this.lore = lore;
+        this.unbreakable = unbreakable;
+        this.useVanillaLore = useVanillaLore;
+        this.enchantments = enchantments;
+        this.disableUse = disableUse;
+        this.nbtId = nbtId;
+        this.trimPattern = trimPattern;
+        this.trimMaterial = trimMaterial;
+        this.category = category;
+        this.recipe = recipe;
+        this.cooldownMillis = cooldownMillis;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    String getMaterialName() {
+        return materialName;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    List<String> getLore() {
+        return lore;
+    }
+
+    boolean isUnbreakable() {
+        return unbreakable;
+    }
+
+    boolean isUseVanillaLore() {
+        return useVanillaLore;
+    }
+
+    Map<String, Integer> getEnchantments() {
+        return enchantments;
+    }
+
+    boolean isDisableUse() {
+        return disableUse;
+    }
+
+    String getNbtId() {
+        return nbtId;
+    }
+
+    String getTrimPattern() {
+        return trimPattern;
+    }
+
+    String getTrimMaterial() {
+        return trimMaterial;
+    }
+
+    String getCategory() {
+        return category;
+    }
+
+    RecipeSpec getRecipe() {
+        return recipe;
+    }
+
+    long getCooldownMillis() {
+        return cooldownMillis;
+    }
+}
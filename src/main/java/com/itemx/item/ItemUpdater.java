@@ -0,0 +1,115 @@
+package com.itemx.item;
+
+import com.itemx.ItemX;
+import com.itemx.util.DebugLogger.Category;
+import com.itemx.util.NBTUtil;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryOpenEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.Damageable;
+import org.bukkit.inventory.meta.ItemMeta;
+
+/**
+ * Rebuilds ItemX stacks that were created from an older version of their definition. Every created
+ * stack carries the content hash of its definition, so spotting a stale one is a single PDC read,
+ * and stacks of materials no definition uses are skipped without reading their meta at all.
+ */
+public class ItemUpdater implements Listener {
+
+    private final ItemX plugin;
+    private final ItemManager itemManager;
+    private final NBTUtil nbtUtil;
+    private volatile boolean enabled;
+    private volatile boolean rebuildUnstamped;
+
+    public ItemUpdater(ItemX plugin, ItemManager itemManager, NBTUtil nbtUtil) {
+        this.plugin = plugin;
+        this.itemManager = itemManager;
+        this.nbtUtil = nbtUtil;
+        reload();
+    }
+
+    public void reload() {
+        enabled = plugin.getConfig().getBoolean("updater.enabled", true);
+        rebuildUnstamped = plugin.getConfig().getBoolean("updater.rebuild-unstamped", false);
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        if (!enabled) return;
+        update(event.getPlayer().getInventory());
+        update(event.getPlayer().getEnderChest());
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onInventoryOpen(InventoryOpenEvent event) {
+        if (!enabled) return;
+        update(event.getInventory());
+        update(event.getPlayer().getInventory());
+    }
+
+    /**
+     * Bring every stale ItemX stack in an inventory up to date
+     * @return The number of stacks that were rebuilt
+     */
+    public int update(Inventory inventory) {
+        ItemStack[] contents = inventory.getContents();
+        int updated = 0;
+        for (int slot = 0; slot < contents.length; slot++) {
+            ItemStack replacement = update(contents[slot]);
+            if (replacement != null) {
+                inventory.setItem(slot, replacement);
+                updated++;
+            }
+        }
+        if (updated > 0 && plugin.getDebugLogger().isEnabled(Category.EVENTS)) {
+            plugin.getDebugLogger().log(Category.EVENTS, "Updated {} stale items in {}", updated, inventory.getType());
+        }
+        return updated;
+    }
+
+    /**
+     * Rebuild a stack if it was created from an older version of its definition. The amount, damage
+     * and custom data of the old stack are kept. Stacks without a revision predate revision stamping,
+     * so nothing says they are stale: they only get the current revision stamped on them, unless
+     * {@code updater.rebuild-unstamped} is set.
+     * @return The rebuilt or stamped stack, or null if the stack is current or not an ItemX item
+     */
+    public ItemStack update(ItemStack item) {
+        ItemCatalog catalog = itemManager.getCatalog();
+        if (item == null || !catalog.isItemMaterial(item.getType()) || !item.hasItemMeta()) return null;
+
+        ItemMeta oldMeta = item.getItemMeta();
+        NBTUtil.ItemData data = nbtUtil.read(oldMeta);
+        String itemId = data.getItemId();
+        if (itemId == null) return null;
+
+        ItemDefinition definition = catalog.getDefinitionByNbtId(itemId);
+        // Items of removed definitions are left alone rather than destroyed
+        if (definition == null || data.getRevision() == definition.getContentHash()) return null;
+
+        // Keep enchantments, renames and trims players gave items made before stamping
+        if (data.getRevision() == 0 && !rebuildUnstamped) {
+            ItemStack stamped = item.clone();
+            nbtUtil.setItemId(stamped, itemId, definition.getContentHash());
+            return stamped;
+        }
+
+        ItemStack updated = itemManager.createItem(definition);
+        updated.setAmount(item.getAmount());
+
+        ItemMeta meta = updated.getItemMeta();
+        // Custom data from other plugins and placeholders carries over; the new id and revision win
+        oldMeta.getPersistentDataContainer().copyTo(meta.getPersistentDataContainer(), false);
+        if (oldMeta instanceof Damageable oldDamage && meta instanceof Damageable newDamage && oldDamage.hasDamage()) {
+            newDamage.setDamage(oldDamage.getDamage());
+        }
+        updated.setItemMeta(meta);
+        itemManager.refreshLore(updated);
+        return updated;
+    }
+}
@@ -0,0 +1,177 @@
+package com.itemx.item;
+
+import com.itemx.ItemX;
+import com.itemx.util.DebugLogger.Category;
+import org.bukkit.Bukkit;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Watches the items directory tree and feeds changed files to {@link ItemManager#applyFileChanges}.
+ * Bursts of events are debounced; changed files are read on the watcher thread and applied on the main thread.
+ */
+public class ItemWatcher {
+
+    private final ItemX plugin;
+    private final ItemManager itemManager;
+    private final ItemParser parser;
+    private final Path root;
+    private final long debounceMillis;
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+    private WatchService watchService;
+    private Thread thread;
+    private volatile boolean running;
+
+    public ItemWatcher(ItemX plugin, ItemManager itemManager, ItemParser parser, Path root, long debounceMillis) {
+        this.plugin = plugin;
+        this.itemManager = itemManager;
+        this.parser = parser;
+        this.root = root;
+        this.debounceMillis = Math.max(50, debounceMillis);
+    }
+
+    public void start() throws IOException {
+        watchService = root.getFileSystem().newWatchService();
+        registerTree(root, null);
+
+        running = true;
+        thread = new Thread(this::run, "ItemX-Watcher");
+        thread.setDaemon(true);
+        thread.start();
+        plugin.getLogger().info("Watching " + directories.size() + " item directories for changes");
+    }
+
+    public void stop() {
+        running = false;
+        try {
+            if (watchService != null) {
+                watchService.close();
+            }
+        } catch (IOException ignored) {
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void run() {
+        Set<Path> pending = new LinkedHashSet<>();
+        long deadline = 0;
+
+        try {
+            while (running) {
+                WatchKey key;
+                if (pending.isEmpty()) {
+                    key = watchService.take();
+                } else {
+                    long remaining = deadline - System.currentTimeMillis();
+                    key = remaining > 0 ? watchService.poll(remaining, TimeUnit.MILLISECONDS) : null;
+                }
+
+                if (key == null) {
+                    flush(pending);
+                    pending = new LinkedHashSet<>();
+                    continue;
+                }
+
+                Path directory = directories.get(key);
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // Too many events to track individually, rescan the whole tree
+                        pending.add(root);
+                        continue;
+                    }
+                    if (directory == null) continue;
+
+                    Path child = directory.resolve((Path) event.context());
+                    if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(child)) {
+                        registerTree(child, pending);
+                    } else if (child.getFileName().toString().endsWith(".yml")
+                            || event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                        pending.add(child);
+                    }
+                }
+                if (!key.reset()) {
+                    directories.remove(key);
+                }
+                deadline = System.currentTimeMillis() + debounceMillis;
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        } catch (IOException e) {
+            plugin.getLogger().warning("Item watcher stopped: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Register a directory and its subdirectories. When collecting, every item file already
+     * inside is queued too, since files can be created before the directory is registered.
+     */
+    private void registerTree(Path start, Set<Path> collect) throws IOException {
+        try (Stream<Path> paths = Files.walk(start)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                if (Files.isDirectory(path)) {
+                    WatchKey key = path.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+                    directories.put(key, path);
+                } else if (collect != null && path.getFileName().toString().endsWith(".yml")) {
+                    collect.add(path);
+                }
+            }
+        }
+    }
+
+    private void flush(Set<Path> pending) {
+        if (pending.contains(root)) {
+            plugin.getDebugLogger().log(Category.PARSER, "Item watcher overflowed, scheduling a full reload");
+            schedule(itemManager::loadItems);
+            return;
+        }
+
+        List<ItemParser.ParsedFile> changed = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        for (Path path : pending) {
+            String relative = relativePath(path);
+            if (Files.isRegularFile(path)) {
+                changed.add(parser.readFile(path.toFile(), relativePath(path.getParent())));
+            } else if (!Files.exists(path)) {
+                removed.add(relative);
+            }
+        }
+
+        plugin.getDebugLogger().log(Category.PARSER, "Item watcher applying {} changed and {} removed paths", changed.size(), removed.size());
+        schedule(() -> itemManager.applyFileChanges(changed, removed));
+    }
+
+    private void schedule(Runnable task) {
+        if (plugin.isEnabled() && running) {
+            Bukkit.getScheduler().runTask(plugin, task);
+        }
+    }
+
+    private String relativePath(Path path) {
+        Path relative = root.relativize(path);
+        StringBuilder result = new StringBuilder();
+        for (Path part : relative) {
+            if (part.toString().isEmpty()) continue;
+            if (result.length() > 0) result.append('/');
+            result.append(part);
+        }
+        return result.toString();
+    }
+}
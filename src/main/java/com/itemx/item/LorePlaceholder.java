@@ -0,0 +1,19 @@
+package com.itemx.item;
+
+import com.itemx.util.NBTUtil;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * Supplies the value of a {@code %placeholder%} in item names and lore.
+ * Called on the main thread whenever a stack's lore is refreshed.
+ */
+@FunctionalInterface
+public interface LorePlaceholder {
+
+    /**
+     * @param item The stack being refreshed
+     * @param data The stack's ItemX data, read from the same snapshot that will be written back
+     * @return The value to show, or null to fall back to the stack's custom data of the same name
+     */
+    String resolve(ItemStack item, NBTUtil.ItemData data);
+}
@@ -0,0 +1,143 @@
+package com.itemx.item;
+
+import com.itemx.util.ColorUtil;
+import com.itemx.util.MessageTemplate;
+import com.itemx.util.NBTUtil;
+import net.kyori.adventure.text.Component;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The name and lore of one definition compiled into templates. Placeholders are resolved per stack
+ * from registered {@link LorePlaceholder}s first, then from the stack's custom data of the same name.
+ */
+final class LoreTemplate {
+
+    private final ItemDefinition definition;
+    private final MessageTemplate name;
+    private final List<MessageTemplate> lore;
+    private final List<String> placeholders;
+    // For each template, the index in placeholders of each of its slots
+    private final int[] nameSlots;
+    private final int[][] loreSlots;
+
+    LoreTemplate(ItemDefinition definition, ColorUtil colorUtil) {
+        this.definition = definition;
+
+        Set<String> used = new LinkedHashSet<>();
+        MessageTemplate nameTemplate = null;
+        if (definition.getName() != null && !definition.getName().isEmpty()) {
+            nameTemplate = MessageTemplate.compile(definition.getName(), colorUtil);
+            used.addAll(nameTemplate.getPlaceholders());
+        }
+        List<MessageTemplate> loreTemplates = new ArrayList<>();
+        if (definition.getLore() != null) {
+            for (String line : definition.getLore()) {
+                MessageTemplate template = MessageTemplate.compile(line, colorUtil);
+                used.addAll(template.getPlaceholders());
+                loreTemplates.add(template);
+            }
+        }
+
+        this.name = nameTemplate;
+        this.lore = Collections.unmodifiableList(loreTemplates);
+        this.placeholders = List.copyOf(used);
+        this.nameSlots = nameTemplate != null ? slotIndexes(nameTemplate) : null;
+        this.loreSlots = new int[loreTemplates.size()][];
+        for (int i = 0; i < loreSlots.length; i++) {
+            loreSlots[i] = slotIndexes(loreTemplates.get(i));
+        }
+    }
+
+    private int[] slotIndexes(MessageTemplate template) {
+        List<String> slots = template.getPlaceholders();
+        int[] indexes = new int[slots.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = placeholders.indexOf(slots.get(i));
+        }
+        return indexes;
+    }
+
+    /**
+     * Whether the name or lore contains placeholders at all
+     */
+    boolean isDynamic() {
+        return !placeholders.isEmpty();
+    }
+
+    /**
+     * Values for rendering without a stack, every placeholder left empty
+     */
+    String[] emptyValues() {
+        String[] values = new String[placeholders.size()];
+        Arrays.fill(values, "");
+        return values;
+    }
+
+    int getLoreSize() {
+        return lore.size();
+    }
+
+    /**
+     * Resolve every placeholder for a stack, in the order of {@link #placeholders}
+     */
+    String[] resolve(ItemStack item, NBTUtil.ItemData data, Map<String, LorePlaceholder> providers) {
+        String[] values = new String[placeholders.size()];
+        for (int i = 0; i < values.length; i++) {
+            String placeholder = placeholders.get(i);
+            String key = placeholder.substring(1, placeholder.length() - 1);
+            String value = null;
+            LorePlaceholder provider = providers.get(key);
+            if (provider != null) {
+                value = provider.resolve(item, data);
+            }
+            if (value == null && data != null) {
+                value = data.getCustomData(key);
+            }
+            values[i] = value != null ? value : "";
+        }
+        return values;
+    }
+
+    /**
+     * Fingerprint of the resolved values and the definition they render, stored on the stack to skip unchanged refreshes
+     */
+    long hash(String[] values) {
+        long hash = definition.getContentHash();
+        for (String value : values) {
+            hash = hash * 0x100000001b3L + value.hashCode();
+            hash = hash * 0x100000001b3L + value.length();
+        }
+        return hash;
+    }
+
+    Component renderName(String[] values) {
+        return name != null ? name.renderSlots(select(nameSlots, values)) : null;
+    }
+
+    List<Component> renderLore(String[] values) {
+        List<Component> lines = new ArrayList<>(lore.size());
+        for (int i = 0; i < lore.size(); i++) {
+            lines.add(lore.get(i).renderSlots(select(loreSlots[i], values)));
+        }
+        return lines;
+    }
+
+    /**
+     * Pick the values of one template's slots out of the values of the whole definition
+     */
+    private static String[] select(int[] slots, String[] values) {
+        String[] selected = new String[slots.length];
+        for (int i = 0; i < selected.length; i++) {
+            selected[i] = values[slots[i]];
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,375 @@
+package com.itemx.item;
+
+import com.destroystokyo.paper.event.block.BlockDestroyEvent;
+import com.itemx.ItemX;
+import com.itemx.util.DebugLogger.Category;
+import com.itemx.util.NBTUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.GameMode;
+import org.bukkit.Material;
+import org.bukkit.Location;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Tag;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Chest;
+import org.bukkit.block.Container;
+import org.bukkit.block.ShulkerBox;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldSaveEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.BlockStateMeta;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Remembers which blocks were placed from ItemX items, so breaking them drops the ItemX item instead of
+ * the vanilla one. Each chunk keeps its blocks in its own persistent data container; while the chunk is
+ * loaded they live in a {@link ChunkBlockIndex}, so a lookup is one map probe for the chunk and one for
+ * the block. Chunks without ItemX blocks cost a single key check when they load and nothing after.
+ * <p>
+ * Containers keep their contents: a shulker box drops the ItemX item with its contents stored in it, as the
+ * vanilla drop would, and other containers spill their inventory when an explosion takes them out, since
+ * clearing the block for the ItemX drop would otherwise delete it. Breaking one by hand already spills it.
+ * <p>
+ * Main thread only.
+ */
+public class PlacedBlockTracker implements Listener {
+
+    private final ItemX plugin;
+    private final ItemManager itemManager;
+    private final NBTUtil nbtUtil;
+    private final NamespacedKey blocksKey;
+    private final NamespacedKey idsKey;
+    private final NamespacedKey typesKey;
+    // Loaded chunks holding ItemX blocks, by world and chunk key
+    private final Map<World, Map<Long, ChunkBlockIndex>> chunks = new HashMap<>();
+    private boolean enabled;
+
+    public PlacedBlockTracker(ItemX plugin, ItemManager itemManager, NBTUtil nbtUtil) {
+        this.plugin = plugin;
+        this.itemManager = itemManager;
+        this.nbtUtil = nbtUtil;
+        this.blocksKey = new NamespacedKey(plugin, "placed_blocks");
+        this.idsKey = new NamespacedKey(plugin, "placed_block_ids");
+        this.typesKey = new NamespacedKey(plugin, "placed_block_types");
+    }
+
+    public void reload() {
+        boolean wasEnabled = enabled;
+        enabled = plugin.getConfig().getBoolean("placed-blocks.enabled", true);
+        if (enabled && !wasEnabled) {
+            // Pick up the chunks that loaded before tracking started
+            for (World world : Bukkit.getWorlds()) {
+                for (Chunk chunk : world.getLoadedChunks()) {
+                    load(chunk);
+                }
+            }
+        } else if (!enabled && wasEnabled) {
+            shutdown();
+        }
+    }
+
+    /**
+     * Write every changed chunk back and forget them all
+     */
+    public void shutdown() {
+        for (Map.Entry<World, Map<Long, ChunkBlockIndex>> world : chunks.entrySet()) {
+            for (Map.Entry<Long, ChunkBlockIndex> chunk : world.getValue().entrySet()) {
+                if (chunk.getValue().isDirty()) {
+                    save(world.getKey().getChunkAt(chunk.getKey()), chunk.getValue());
+                }
+            }
+        }
+        chunks.clear();
+    }
+
+    /**
+     * The ItemX item a block was placed from, or null if it is a plain block
+     */
+    public ItemDefinition getPlacedItem(Block block) {
+        ChunkBlockIndex index = indexOf(block);
+        if (index == null) return null;
+        String nbtId = index.get(position(block), block.getType());
+        return nbtId != null ? itemManager.getCatalog().getDefinitionByNbtId(nbtId) : null;
+    }
+
+    public int getTrackedBlocks() {
+        int count = 0;
+        for (Map<Long, ChunkBlockIndex> world : chunks.values()) {
+            for (ChunkBlockIndex index : world.values()) {
+                count += index.size();
+            }
+        }
+        return count;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        if (!enabled) return;
+        Block block = event.getBlockPlaced();
+        // Whatever was recorded here before is gone now
+        untrack(block);
+
+        ItemStack item = event.getItemInHand();
+        ItemCatalog catalog = itemManager.getCatalog();
+        if (!catalog.isItemMaterial(item.getType())) return;
+        String nbtId = nbtUtil.getItemId(item);
+        if (nbtId == null || catalog.getDefinitionByNbtId(nbtId) == null) return;
+
+        Chunk chunk = block.getChunk();
+        ChunkBlockIndex index = chunks.computeIfAbsent(block.getWorld(), w -> new HashMap<>())
+                .computeIfAbsent(chunk.getChunkKey(), k -> new ChunkBlockIndex(0));
+        if (!index.put(position(block), nbtId, block.getType())) {
+            plugin.getLogger().warning("Chunk " + chunk.getX() + "," + chunk.getZ() + " in " + block.getWorld().getName()
+                    + " holds too many different ItemX blocks, " + nbtId + " will drop as a vanilla block");
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        ItemDefinition definition = remove(event.getBlock());
+        if (definition == null) return;
+
+        // Only replace a drop vanilla would actually make, so a block broken without the right tool drops nothing
+        Player player = event.getPlayer();
+        if (event.isDropItems() && player.getGameMode() != GameMode.CREATIVE
+                && !event.getBlock().getDrops(player.getInventory().getItemInMainHand(), player).isEmpty()) {
+            event.setDropItems(false);
+            dropItem(event.getBlock(), definition);
+        }
+        if (plugin.getDebugLogger().isEnabled(Category.EVENTS)) {
+            plugin.getDebugLogger().log(Category.EVENTS, "Broke placed {} at {}", definition.getFullNbtId(), event.getBlock().getLocation());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onBlockDestroy(BlockDestroyEvent event) {
+        // Blocks broken by physics, such as a torch losing its support
+        ItemDefinition definition = remove(event.getBlock());
+        if (definition != null && event.willDrop()) {
+            event.setWillDrop(false);
+            dropItem(event.getBlock(), definition);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        explode(event.blockList(), event.getYield());
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        explode(event.blockList(), event.getYield());
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onBlockBurn(BlockBurnEvent event) {
+        untrack(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        if (isAnyTracked(event.getBlocks())) {
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        if (isAnyTracked(event.getBlocks())) {
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        if (!enabled || event.isNewChunk()) return;
+        load(event.getChunk());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        Map<Long, ChunkBlockIndex> world = chunks.get(event.getWorld());
+        if (world == null) return;
+        ChunkBlockIndex index = world.remove(event.getChunk().getChunkKey());
+        if (index != null && index.isDirty()) {
+            save(event.getChunk(), index);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldSave(WorldSaveEvent event) {
+        Map<Long, ChunkBlockIndex> world = chunks.get(event.getWorld());
+        if (world == null) return;
+        for (Map.Entry<Long, ChunkBlockIndex> chunk : world.entrySet()) {
+            if (chunk.getValue().isDirty()) {
+                save(event.getWorld().getChunkAt(chunk.getKey()), chunk.getValue());
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        Map<Long, ChunkBlockIndex> world = chunks.remove(event.getWorld());
+        if (world == null) return;
+        for (Map.Entry<Long, ChunkBlockIndex> chunk : world.entrySet()) {
+            if (chunk.getValue().isDirty()) {
+                save(event.getWorld().getChunkAt(chunk.getKey()), chunk.getValue());
+            }
+        }
+    }
+
+    private void load(Chunk chunk) {
+        PersistentDataContainer container = chunk.getPersistentDataContainer();
+        if (!container.has(blocksKey, PersistentDataType.INTEGER_ARRAY)) return;
+
+        int[] packed = container.get(blocksKey, PersistentDataType.INTEGER_ARRAY);
+        List<String> ids = container.getOrDefault(idsKey, PersistentDataType.LIST.strings(), List.of());
+        List<String> types = container.getOrDefault(typesKey, PersistentDataType.LIST.strings(), List.of());
+        ChunkBlockIndex index = ChunkBlockIndex.load(packed, ids, types);
+        if (!index.isEmpty()) {
+            chunks.computeIfAbsent(chunk.getWorld(), w -> new HashMap<>()).put(chunk.getChunkKey(), index);
+        }
+    }
+
+    private void save(Chunk chunk, ChunkBlockIndex index) {
+        PersistentDataContainer container = chunk.getPersistentDataContainer();
+        List<String> ids = new ArrayList<>();
+        List<String> types = new ArrayList<>();
+        int[] packed = index.save(ids, types);
+        if (packed.length == 0) {
+            container.remove(blocksKey);
+            container.remove(idsKey);
+            container.remove(typesKey);
+            return;
+        }
+        container.set(blocksKey, PersistentDataType.INTEGER_ARRAY, packed);
+        container.set(idsKey, PersistentDataType.LIST.strings(), ids);
+        container.set(typesKey, PersistentDataType.LIST.strings(), types);
+    }
+
+    /**
+     * Take the ItemX blocks out of an explosion and drop their items instead of the vanilla ones
+     * @param yield The chance of each block dropping, as the explosion would have applied it
+     */
+    private void explode(List<Block> blocks, float yield) {
+        if (chunks.isEmpty()) return;
+        Iterator<Block> iterator = blocks.iterator();
+        while (iterator.hasNext()) {
+            Block block = iterator.next();
+            ItemDefinition definition = remove(block);
+            if (definition == null) continue;
+
+            iterator.remove();
+            // Shulker boxes always drop with their contents; other blocks only as often as the explosion allows
+            boolean drops = Tag.SHULKER_BOXES.isTagged(block.getType()) || ThreadLocalRandom.current().nextFloat() < yield;
+            ItemStack item = drops ? createDrop(block, definition) : null;
+            spillContents(block);
+            block.setType(Material.AIR);
+            if (item != null) {
+                block.getWorld().dropItemNaturally(block.getLocation().add(0.5, 0.5, 0.5), item);
+            }
+        }
+    }
+
+    /**
+     * Drop the inventory of a container other than a shulker box and empty it, as vanilla does when one is destroyed
+     */
+    private static void spillContents(Block block) {
+        if (Tag.SHULKER_BOXES.isTagged(block.getType())) return;
+        BlockState state = block.getState(false);
+        if (!(state instanceof Container container)) return;
+
+        // Only this half of a double chest
+        Inventory inventory = state instanceof Chest chest ? chest.getBlockInventory() : container.getInventory();
+        Location location = block.getLocation().add(0.5, 0.5, 0.5);
+        for (ItemStack stack : inventory.getContents()) {
+            if (stack != null && !stack.getType().isAir()) {
+                block.getWorld().dropItemNaturally(location, stack);
+            }
+        }
+        inventory.clear();
+    }
+
+    private boolean isAnyTracked(List<Block> blocks) {
+        if (chunks.isEmpty()) return false;
+        for (Block block : blocks) {
+            ChunkBlockIndex index = indexOf(block);
+            if (index != null && index.contains(position(block))) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Forget a block and resolve what it was placed from
+     * @return The definition, or null if the block was not tracked, has changed type or its item no longer exists
+     */
+    private ItemDefinition remove(Block block) {
+        ChunkBlockIndex index = indexOf(block);
+        if (index == null) return null;
+        int position = position(block);
+        String nbtId = index.get(position, block.getType());
+        index.remove(position);
+        return nbtId != null ? itemManager.getCatalog().getDefinitionByNbtId(nbtId) : null;
+    }
+
+    private void untrack(Block block) {
+        ChunkBlockIndex index = indexOf(block);
+        if (index != null) {
+            index.remove(position(block));
+        }
+    }
+
+    private ChunkBlockIndex indexOf(Block block) {
+        if (chunks.isEmpty()) return null;
+        Map<Long, ChunkBlockIndex> world = chunks.get(block.getWorld());
+        return world != null ? world.get(Chunk.getChunkKey(block.getX() >> 4, block.getZ() >> 4)) : null;
+    }
+
+    private static int position(Block block) {
+        return ChunkBlockIndex.pack(block.getX(), block.getY(), block.getZ(), block.getWorld().getMinHeight());
+    }
+
+    private void dropItem(Block block, ItemDefinition definition) {
+        block.getWorld().dropItemNaturally(block.getLocation().add(0.5, 0.5, 0.5), createDrop(block, definition));
+    }
+
+    /**
+     * The ItemX item for a block about to be removed, carrying the contents of a shulker box like the vanilla drop
+     */
+    private ItemStack createDrop(Block block, ItemDefinition definition) {
+        ItemStack item = itemManager.createItem(definition);
+        if (Tag.SHULKER_BOXES.isTagged(block.getType())
+                && block.getState() instanceof ShulkerBox box
+                && item.getItemMeta() instanceof BlockStateMeta meta
+                && meta.getBlockState() instanceof ShulkerBox) {
+            meta.setBlockState(box);
+            item.setItemMeta(meta);
+        }
+        return item;
+    }
+}
@@ -0,0 +1,533 @@
+package com.itemx.item;
+
+import com.itemx.ItemX;
+import com.itemx.util.DebugLogger.Category;
+import com.itemx.util.NBTUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.Keyed;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.PrepareItemCraftEvent;
+import org.bukkit.event.inventory.PrepareSmithingEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.Recipe;
+import org.bukkit.inventory.RecipeChoice;
+import org.bukkit.inventory.ShapedRecipe;
+import org.bukkit.inventory.ShapelessRecipe;
+import org.bukkit.inventory.SmithingInventory;
+import org.bukkit.inventory.SmithingTransformRecipe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Registers the {@code recipe:} sections of item definitions with the server and checks ItemX ingredients.
+ * <p>
+ * Recipes are registered with plain material choices, so the server does the shape matching. When a grid
+ * changes, the recipe the server matched is looked up by key and its ItemX ingredients are checked by id.
+ * If it does not fit, the ItemX items in the grid are looked up in an ingredient index to find the recipe
+ * they do fit, which covers recipes the server could not tell apart by material alone.
+ */
+public class RecipeManager implements Listener {
+
+    private final ItemX plugin;
+    private final ItemManager itemManager;
+    private final NBTUtil nbtUtil;
+    private volatile RecipeIndex index = new RecipeIndex(Collections.emptyMap());
+
+    public RecipeManager(ItemX plugin, ItemManager itemManager, NBTUtil nbtUtil) {
+        this.plugin = plugin;
+        this.itemManager = itemManager;
+        this.nbtUtil = nbtUtil;
+    }
+
+    /**
+     * Register the recipes of a newly published catalog in place of the previous ones. Recipes that did not
+     * change stay registered; the rest are swapped in one go and sent to players in a single update.
+     * Must run on the main thread, after the catalog is published.
+     */
+    public void apply(ItemCatalog catalog) {
+        Map<NamespacedKey, CustomRecipe> recipes = plugin.getConfig().getBoolean("recipes.enabled", true)
+                ? build(catalog)
+                : Collections.emptyMap();
+        RecipeIndex previous = index;
+
+        List<NamespacedKey> removed = new ArrayList<>();
+        for (CustomRecipe old : previous.byKey.values()) {
+            if (!old.sameAs(recipes.get(old.key))) {
+                removed.add(old.key);
+            }
+        }
+        List<CustomRecipe> added = new ArrayList<>();
+        for (CustomRecipe recipe : recipes.values()) {
+            if (!recipe.sameAs(previous.byKey.get(recipe.key))) {
+                added.add(recipe);
+            }
+        }
+
+        Map<NamespacedKey, CustomRecipe> registered = new LinkedHashMap<>(recipes);
+        if (!removed.isEmpty() || !added.isEmpty()) {
+            for (NamespacedKey key : removed) {
+                Bukkit.removeRecipe(key, false);
+            }
+            for (CustomRecipe recipe : added) {
+                try {
+                    Bukkit.addRecipe(recipe.toBukkitRecipe(), false);
+                } catch (RuntimeException e) {
+                    plugin.getLogger().warning("Failed to register recipe for item " + recipe.definition.getId() + ": " + e.getMessage());
+                    registered.remove(recipe.key);
+                }
+            }
+            Bukkit.updateRecipes();
+        }
+
+        index = new RecipeIndex(registered);
+        plugin.getDebugLogger().log(Category.PARSER, "Registered {} recipes ({} added or changed, {} removed)",
+                registered.size(), added.size(), removed.size());
+    }
+
+    /**
+     * Unregister every recipe
+     */
+    public void shutdown() {
+        RecipeIndex current = index;
+        if (current.byKey.isEmpty()) return;
+        for (NamespacedKey key : current.byKey.keySet()) {
+            Bukkit.removeRecipe(key, false);
+        }
+        Bukkit.updateRecipes();
+        index = new RecipeIndex(Collections.emptyMap());
+    }
+
+    public int getRecipeCount() {
+        return index.byKey.size();
+    }
+
+    /**
+     * The item a registered recipe crafts, or null if the key is not an ItemX recipe
+     */
+    public ItemDefinition getResult(NamespacedKey key) {
+        CustomRecipe recipe = index.byKey.get(key);
+        return recipe != null ? recipe.definition : null;
+    }
+
+    /**
+     * The items whose recipes take the given material, as itself or as an ItemX item made of it
+     */
+    public List<ItemDefinition> getRecipesUsing(Material material) {
+        return results(index.byMaterial.get(material));
+    }
+
+    /**
+     * The items whose recipes take the given ItemX item
+     */
+    public List<ItemDefinition> getRecipesUsing(ItemDefinition ingredient) {
+        return results(index.byItem.get(ingredient.getFullNbtId()));
+    }
+
+    private static List<ItemDefinition> results(List<CustomRecipe> recipes) {
+        if (recipes == null) return Collections.emptyList();
+        List<ItemDefinition> results = new ArrayList<>(recipes.size());
+        for (CustomRecipe recipe : recipes) {
+            results.add(recipe.definition);
+        }
+        return results;
+    }
+
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onPrepareCraft(PrepareItemCraftEvent event) {
+        RecipeIndex current = index;
+        Recipe recipe = event.getRecipe();
+        if (recipe == null || current.byKey.isEmpty()) return;
+
+        ItemStack[] matrix = event.getInventory().getMatrix();
+        CustomRecipe matched = recipe instanceof Keyed keyed ? current.byKey.get(keyed.getKey()) : null;
+        if (matched != null && matched.matches(matrix)) {
+            event.getInventory().setResult(matched.createResult());
+            return;
+        }
+
+        CustomRecipe found = current.findByItems(matrix, false);
+        if (found != null) {
+            event.getInventory().setResult(found.createResult());
+        } else if (matched != null) {
+            // Right materials, wrong ItemX items
+            event.getInventory().setResult(null);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onPrepareSmithing(PrepareSmithingEvent event) {
+        RecipeIndex current = index;
+        SmithingInventory inventory = event.getInventory();
+        Recipe recipe = inventory.getRecipe();
+        if (recipe == null || current.byKey.isEmpty()) return;
+
+        ItemStack[] inputs = {inventory.getInputTemplate(), inventory.getInputEquipment(), inventory.getInputMineral()};
+        CustomRecipe matched = recipe instanceof Keyed keyed ? current.byKey.get(keyed.getKey()) : null;
+        if (matched != null && matched.matches(inputs)) {
+            event.setResult(matched.createResult());
+            return;
+        }
+
+        CustomRecipe found = current.findByItems(inputs, true);
+        if (found != null) {
+            event.setResult(found.createResult());
+        } else if (matched != null) {
+            event.setResult(null);
+        }
+    }
+
+    private Map<NamespacedKey, CustomRecipe> build(ItemCatalog catalog) {
+        Map<NamespacedKey, CustomRecipe> recipes = new LinkedHashMap<>();
+        for (ItemDefinition definition : catalog.getDefinitions()) {
+            RecipeSpec spec = definition.getRecipe();
+            if (spec == null) continue;
+
+            NamespacedKey key = new NamespacedKey(plugin, "item/"
+                    + definition.getId().toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9/._-]", "_"));
+            if (recipes.containsKey(key)) {
+                plugin.getLogger().warning("Recipe for item " + definition.getId() + " clashes with the recipe for "
+                        + recipes.get(key).definition.getId() + " once their ids are made key-safe, skipping it");
+                continue;
+            }
+
+            CustomRecipe recipe = build(catalog, key, definition, spec);
+            if (recipe != null) {
+                recipes.put(key, recipe);
+            }
+        }
+        return recipes;
+    }
+
+    private CustomRecipe build(ItemCatalog catalog, NamespacedKey key, ItemDefinition definition, RecipeSpec spec) {
+        switch (spec.getType()) {
+            case SHAPED: {
+                // Trim empty rows and columns, like the server does, so the grid lines up with the matrix
+                List<String> shape = spec.getShape();
+                int top = shape.size(), bottom = -1, left = Integer.MAX_VALUE, right = -1;
+                for (int row = 0; row < shape.size(); row++) {
+                    String line = shape.get(row);
+                    for (int column = 0; column < line.length(); column++) {
+                        if (line.charAt(column) == ' ') continue;
+                        top = Math.min(top, row);
+                        bottom = Math.max(bottom, row);
+                        left = Math.min(left, column);
+                        right = Math.max(right, column);
+                    }
+                }
+
+                int width = right - left + 1;
+                int height = bottom - top + 1;
+                String[] rows = new String[height];
+                Ingredient[] grid = new Ingredient[width * height];
+                Map<Character, Ingredient> resolved = new HashMap<>();
+                for (int row = 0; row < height; row++) {
+                    rows[row] = shape.get(top + row).substring(left, right + 1);
+                    for (int column = 0; column < width; column++) {
+                        char symbol = rows[row].charAt(column);
+                        if (symbol == ' ') continue;
+                        Ingredient ingredient = resolved.get(symbol);
+                        if (ingredient == null) {
+                            ingredient = resolve(catalog, definition, spec.getKeys().get(symbol));
+                            if (ingredient == null) return null;
+                            resolved.put(symbol, ingredient);
+                        }
+                        grid[row * width + column] = ingredient;
+                    }
+                }
+                return new CustomRecipe(key, definition, spec, grid, width, rows, resolved);
+            }
+            case SHAPELESS: {
+                Ingredient[] ingredients = new Ingredient[spec.getIngredients().size()];
+                for (int i = 0; i < ingredients.length; i++) {
+                    ingredients[i] = resolve(catalog, definition, spec.getIngredients().get(i));
+                    if (ingredients[i] == null) return null;
+                }
+                return new CustomRecipe(key, definition, spec, ingredients, 0, null, null);
+            }
+            default: {
+                Ingredient template = resolve(catalog, definition, spec.getTemplate());
+                Ingredient base = resolve(catalog, definition, spec.getBase());
+                Ingredient addition = resolve(catalog, definition, spec.getAddition());
+                if (template == null || base == null || addition == null) return null;
+                return new CustomRecipe(key, definition, spec, new Ingredient[]{template, base, addition}, 0, null, null);
+            }
+        }
+    }
+
+    /**
+     * Resolve a material name or {@code itemx:<item-id>}
+     * @return The ingredient, or null after warning if it names nothing
+     */
+    private Ingredient resolve(ItemCatalog catalog, ItemDefinition definition, String value) {
+        if (value.regionMatches(true, 0, RecipeSpec.ITEM_PREFIX, 0, RecipeSpec.ITEM_PREFIX.length())) {
+            String itemId = value.substring(RecipeSpec.ITEM_PREFIX.length());
+            ItemDefinition item = catalog.getDefinition(itemId);
+            if (item == null) {
+                plugin.getLogger().warning("Recipe for item " + definition.getId() + " uses unknown item '" + itemId + "'");
+                return null;
+            }
+            return new Ingredient(item.getMaterial(), item.getFullNbtId());
+        }
+
+        Material material = Material.matchMaterial(value);
+        if (material == null || material.isAir() || !material.isItem()) {
+            plugin.getLogger().warning("Recipe for item " + definition.getId() + " uses invalid material '" + value + "'");
+            return null;
+        }
+        return new Ingredient(material, null);
+    }
+
+    private static boolean isEmpty(ItemStack stack) {
+        return stack == null || stack.getType().isAir();
+    }
+
+    /**
+     * A recipe ingredient: any stack of the material, or only the ItemX item with the given NBT id
+     */
+    private static final class Ingredient {
+        private final Material material;
+        private final String nbtId;
+
+        private Ingredient(Material material, String nbtId) {
+            this.material = material;
+            this.nbtId = nbtId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Ingredient)) return false;
+            Ingredient other = (Ingredient) o;
+            return material == other.material && Objects.equals(nbtId, other.nbtId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(material, nbtId);
+        }
+    }
+
+    private final class CustomRecipe {
+        private final NamespacedKey key;
+        private final ItemDefinition definition;
+        private final RecipeSpec spec;
+        // Shaped: the trimmed grid, row by row, null for empty cells. Shapeless: the ingredients.
+        // Smithing: template, base and addition.
+        private final Ingredient[] ingredients;
+        private final int width;
+        private final String[] rows;
+        private final Map<Character, Ingredient> symbols;
+        // Each distinct ItemX ingredient, and the materials they are made of
+        private final String[] itemIds;
+        private final Set<Material> itemMaterials = EnumSet.noneOf(Material.class);
+
+        private CustomRecipe(NamespacedKey key, ItemDefinition definition, RecipeSpec spec, Ingredient[] ingredients,
+                             int width, String[] rows, Map<Character, Ingredient> symbols) {
+            this.key = key;
+            this.definition = definition;
+            this.spec = spec;
+            this.ingredients = ingredients;
+            this.width = width;
+            this.rows = rows;
+            this.symbols = symbols;
+
+            Set<String> ids = new LinkedHashSet<>();
+            for (Ingredient ingredient : ingredients) {
+                if (ingredient != null && ingredient.nbtId != null) {
+                    ids.add(ingredient.nbtId);
+                    itemMaterials.add(ingredient.material);
+                }
+            }
+            this.itemIds = ids.toArray(new String[0]);
+        }
+
+        /**
+         * Whether this recipe would register exactly like another one
+         */
+        boolean sameAs(CustomRecipe other) {
+            return other != null
+                    && definition.equals(other.definition)
+                    && spec.equals(other.spec)
+                    && Arrays.equals(ingredients, other.ingredients);
+        }
+
+        boolean isSmithing() {
+            return spec.getType() == RecipeSpec.Type.SMITHING;
+        }
+
+        ItemStack createResult() {
+            ItemStack result = itemManager.createItem(definition);
+            result.setAmount(spec.getAmount());
+            return result;
+        }
+
+        /**
+         * Check the inputs against this recipe, ItemX ingredients by id
+         * @param inputs The crafting matrix, or the smithing template, base and addition
+         */
+        boolean matches(ItemStack[] inputs) {
+            switch (spec.getType()) {
+                case SHAPED:
+                    return matchesShaped(inputs);
+                case SHAPELESS:
+                    return matchesShapeless(inputs);
+                default:
+                    for (int i = 0; i < ingredients.length; i++) {
+                        if (!matches(ingredients[i], inputs[i])) return false;
+                    }
+                    return true;
+            }
+        }
+
+        private boolean matchesShaped(ItemStack[] matrix) {
+            int size = matrix.length == 4 ? 2 : 3;
+            int top = size, bottom = -1, left = size, right = -1;
+            for (int slot = 0; slot < matrix.length; slot++) {
+                if (isEmpty(matrix[slot])) continue;
+                int row = slot / size;
+                int column = slot % size;
+                top = Math.min(top, row);
+                bottom = Math.max(bottom, row);
+                left = Math.min(left, column);
+                right = Math.max(right, column);
+            }
+            int height = ingredients.length / width;
+            if (bottom - top + 1 != height || right - left + 1 != width) return false;
+
+            // The server also accepts shaped recipes mirrored left to right
+            return matchesGrid(matrix, size, top, left, false) || matchesGrid(matrix, size, top, left, true);
+        }
+
+        private boolean matchesGrid(ItemStack[] matrix, int size, int top, int left, boolean mirrored) {
+            int height = ingredients.length / width;
+            for (int row = 0; row < height; row++) {
+                for (int column = 0; column < width; column++) {
+                    Ingredient ingredient = ingredients[row * width + (mirrored ? width - 1 - column : column)];
+                    ItemStack stack = matrix[(top + row) * size + left + column];
+                    if (ingredient == null ? !isEmpty(stack) : !matches(ingredient, stack)) return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean matchesShapeless(ItemStack[] matrix) {
+            boolean[] used = new boolean[ingredients.length];
+            int stacks = 0;
+            for (ItemStack stack : matrix) {
+                if (isEmpty(stack)) continue;
+                stacks++;
+                // An ItemX item takes its own ingredient before a plain one of its material,
+                // which can only leave the plain one for a stack that fits nothing else
+                if (!use(used, stack, true) && !use(used, stack, false)) return false;
+            }
+            return stacks == ingredients.length;
+        }
+
+        private boolean use(boolean[] used, ItemStack stack, boolean items) {
+            for (int i = 0; i < ingredients.length; i++) {
+                if (!used[i] && (ingredients[i].nbtId != null) == items && matches(ingredients[i], stack)) {
+                    used[i] = true;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean matches(Ingredient ingredient, ItemStack stack) {
+            if (isEmpty(stack) || stack.getType() != ingredient.material) return false;
+            return ingredient.nbtId == null || ingredient.nbtId.equals(nbtUtil.getItemId(stack));
+        }
+
+        Recipe toBukkitRecipe() {
+            ItemStack result = createResult();
+            switch (spec.getType()) {
+                case SHAPED: {
+                    ShapedRecipe recipe = new ShapedRecipe(key, result);
+                    recipe.shape(rows);
+                    for (Map.Entry<Character, Ingredient> entry : symbols.entrySet()) {
+                        recipe.setIngredient(entry.getKey(), new RecipeChoice.MaterialChoice(entry.getValue().material));
+                    }
+                    return recipe;
+                }
+                case SHAPELESS: {
+                    ShapelessRecipe recipe = new ShapelessRecipe(key, result);
+                    for (Ingredient ingredient : ingredients) {
+                        recipe.addIngredient(new RecipeChoice.MaterialChoice(ingredient.material));
+                    }
+                    return recipe;
+                }
+                default:
+                    // The result is a fresh ItemX item, nothing is carried over from the base
+                    return new SmithingTransformRecipe(key, result,
+                            new RecipeChoice.MaterialChoice(ingredients[0].material),
+                            new RecipeChoice.MaterialChoice(ingredients[1].material),
+                            new RecipeChoice.MaterialChoice(ingredients[2].material),
+                            false);
+            }
+        }
+    }
+
+    /**
+     * Registered recipes by key, and by the ingredients they take
+     */
+    private final class RecipeIndex {
+        private final Map<NamespacedKey, CustomRecipe> byKey;
+        private final Map<String, List<CustomRecipe>> byItem = new HashMap<>();
+        private final Map<Material, List<CustomRecipe>> byMaterial = new EnumMap<>(Material.class);
+        private final Set<Material> itemMaterials = EnumSet.noneOf(Material.class);
+
+        private RecipeIndex(Map<NamespacedKey, CustomRecipe> byKey) {
+            this.byKey = byKey;
+            for (CustomRecipe recipe : byKey.values()) {
+                Set<Material> materials = EnumSet.noneOf(Material.class);
+                for (Ingredient ingredient : recipe.ingredients) {
+                    if (ingredient == null) continue;
+                    materials.add(ingredient.material);
+                }
+                for (String nbtId : recipe.itemIds) {
+                    byItem.computeIfAbsent(nbtId, id -> new ArrayList<>()).add(recipe);
+                }
+                for (Material material : materials) {
+                    byMaterial.computeIfAbsent(material, m -> new ArrayList<>()).add(recipe);
+                }
+                itemMaterials.addAll(recipe.itemMaterials);
+            }
+        }
+
+        /**
+         * Find a recipe taking one of the ItemX items among the inputs that the inputs fit.
+         * Only stacks of materials some ItemX ingredient uses have their id read.
+         */
+        CustomRecipe findByItems(ItemStack[] inputs, boolean smithing) {
+            if (byItem.isEmpty()) return null;
+            for (ItemStack stack : inputs) {
+                if (isEmpty(stack) || !itemMaterials.contains(stack.getType())) continue;
+                String nbtId = nbtUtil.getItemId(stack);
+                List<CustomRecipe> candidates = nbtId != null ? byItem.get(nbtId) : null;
+                if (candidates == null) continue;
+                for (CustomRecipe candidate : candidates) {
+                    if (candidate.isSmithing() == smithing && candidate.matches(inputs)) {
+                        return candidate;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+}
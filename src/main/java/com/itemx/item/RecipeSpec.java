@@ -0,0 +1,103 @@
+package com.itemx.item;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The {@code recipe:} section of an item, as read from YAML. Ingredients are material names, or
+ * {@code itemx:<item-id>} for ItemX items; they are resolved when the recipe is registered.
+ */
+public final class RecipeSpec {
+
+    public enum Type {
+        SHAPED,
+        SHAPELESS,
+        SMITHING
+    }
+
+    public static final String ITEM_PREFIX = "itemx:";
+
+    private final Type type;
+    private final List<String> shape;
+    private final Map<Character, String> keys;
+    private final List<String> ingredients;
+    private final String template;
+    private final String base;
+    private final String addition;
+    private final int amount;
+
+    RecipeSpec(Type type, List<String> shape, Map<Character, String> keys, List<String> ingredients,
+               String template, String base, String addition, int amount) {
+        this.type = type;
+        this.shape = shape != null ? List.copyOf(shape) : Collections.emptyList();
+        this.keys = keys != null ? Collections.unmodifiableMap(keys) : Collections.emptyMap();
+        this.ingredients = ingredients != null ? List.copyOf(ingredients) : Collections.emptyList();
+        this.template = template;
+        this.base = base;
+        this.addition = addition;
+        this.amount = amount;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Rows of a shaped recipe
+     */
+    public List<String> getShape() {
+        return shape;
+    }
+
+    /**
+     * Ingredients of a shaped recipe, by shape character
+     */
+    public Map<Character, String> getKeys() {
+        return keys;
+    }
+
+    /**
+     * Ingredients of a shapeless recipe
+     */
+    public List<String> getIngredients() {
+        return ingredients;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    public String getBase() {
+        return base;
+    }
+
+    public String getAddition() {
+        return addition;
+    }
+
+    public int getAmount() {
+        return amount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RecipeSpec)) return false;
+        RecipeSpec other = (RecipeSpec) o;
+        return type == other.type
+                && amount == other.amount
+                && shape.equals(other.shape)
+                && keys.equals(other.keys)
+                && ingredients.equals(other.ingredients)
+                && Objects.equals(template, other.template)
+                && Objects.equals(base, other.base)
+                && Objects.equals(addition, other.addition);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, shape, keys, ingredients, template, base, addition, amount);
+    }
+}
@@ -1,30 +1,107 @@
 package com.itemx.util;
 
 import com.itemx.ItemX;
+import com.itemx.util.DebugLogger.Category;
 import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.format.TextDecoration;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 public class ColorUtil {
-    
+
     private final MiniMessage miniMessage;
     private final LegacyComponentSerializer legacySerializer;
     private final ItemX plugin;
-    
-    // Pattern for hex color codes like &#FF0048
-    private static final Pattern HEX_PATTERN = Pattern.compile("&#([A-Fa-f0-9]{6})");
-    
+    private final ComponentCache componentCache;
+
+    // Legacy code -> MiniMessage tag / Adventure style, indexed by the code character
+    private static final String[] LEGACY_TAGS = new String[128];
+    private static final NamedTextColor[] LEGACY_COLORS = new NamedTextColor[128];
+    private static final TextDecoration[] LEGACY_DECORATIONS = new TextDecoration[128];
+
+    // Text containing any of these after conversion is not given a leading <!italic>
+    private static final String[] COMPLEX_FORMATTING = {"gradient", "rainbow", "click", "hover", "transition", "color:"};
+
+    static {
+        registerColor('0', NamedTextColor.BLACK, "black");
+        registerColor('1', NamedTextColor.DARK_BLUE, "dark_blue");
+        registerColor('2', NamedTextColor.DARK_GREEN, "dark_green");
+        registerColor('3', NamedTextColor.DARK_AQUA, "dark_aqua");
+        registerColor('4', NamedTextColor.DARK_RED, "dark_red");
+        registerColor('5', NamedTextColor.DARK_PURPLE, "dark_purple");
+        registerColor('6', NamedTextColor.GOLD, "gold");
+        registerColor('7', NamedTextColor.GRAY, "gray");
+        registerColor('8', NamedTextColor.DARK_GRAY, "dark_gray");
+        registerColor('9', NamedTextColor.BLUE, "blue");
+        registerColor('a', NamedTextColor.GREEN, "green");
+        registerColor('b', NamedTextColor.AQUA, "aqua");
+        registerColor('c', NamedTextColor.RED, "red");
+        registerColor('d', NamedTextColor.LIGHT_PURPLE, "light_purple");
+        registerColor('e', NamedTextColor.YELLOW, "yellow");
+        registerColor('f', NamedTextColor.WHITE, "white");
+        registerDecoration('l', TextDecoration.BOLD, "bold");
+        registerDecoration('o', TextDecoration.ITALIC, "italic");
+        registerDecoration('n', TextDecoration.UNDERLINED, "underlined");
+        registerDecoration('m', TextDecoration.STRIKETHROUGH, "strikethrough");
+        registerDecoration('k', TextDecoration.OBFUSCATED, "obfuscated");
+        LEGACY_TAGS['r'] = LEGACY_TAGS['R'] = "<reset>";
+    }
+
+    private static void registerColor(char code, NamedTextColor color, String tag) {
+        LEGACY_TAGS[code] = LEGACY_TAGS[Character.toUpperCase(code)] = "<" + tag + ">";
+        LEGACY_COLORS[code] = LEGACY_COLORS[Character.toUpperCase(code)] = color;
+    }
+
+    private static void registerDecoration(char code, TextDecoration decoration, String tag) {
+        LEGACY_TAGS[code] = LEGACY_TAGS[Character.toUpperCase(code)] = "<" + tag + ">";
+        LEGACY_DECORATIONS[code] = LEGACY_DECORATIONS[Character.toUpperCase(code)] = decoration;
+    }
+
     public ColorUtil(ItemX plugin) {
         this.plugin = plugin;
         this.miniMessage = MiniMessage.miniMessage();
         this.legacySerializer = LegacyComponentSerializer.legacyAmpersand();
+        this.componentCache = new ComponentCache();
+        reload();
+    }
+
+    /**
+     * Re-read the cache settings and drop every cached component
+     */
+    public void reload() {
+        componentCache.resize(plugin.getConfig().getInt("cache.components.max-size", 2048));
     }
-    
+
+    public long getCacheHits() {
+        return componentCache.hits.sum();
+    }
+
+    public long getCacheMisses() {
+        return componentCache.misses.sum();
+    }
+
+    public long getCacheEvictions() {
+        return componentCache.evictions.sum();
+    }
+
+    public int getCacheSize() {
+        return componentCache.size();
+    }
+
     /**
-     * Parse a string with MiniMessage color codes, legacy codes, and hex codes into a Component
+     * Parse a string with MiniMessage color codes, legacy codes, and hex codes into a Component.
+     * Results are cached by input string; Components are immutable so sharing them is safe.
      * @param text The text to parse
      * @return Parsed Component
      */
@@ -32,102 +109,231 @@ public class ColorUtil {
         if (text == null || text.isEmpty()) {
             return Component.empty();
         }
-        
+
+        Metrics metrics = plugin.getMetrics();
+        long start = metrics.start();
+        long allocated = metrics.allocatedBytes();
+        Component component = componentCache.get(text);
+        if (component == null) {
+            component = parseUncached(text);
+            componentCache.put(text, component);
+        }
+        metrics.record(Metrics.Timer.PARSE_COLOR, start, allocated);
+        return component;
+    }
+
+    private Component parseUncached(String text) {
+        // Strings without MiniMessage tags are built directly, skipping MiniMessage entirely
+        if (isDirectFormattable(text)) {
+            Component component = parseDirect(text, true);
+            plugin.getDebugLogger().log(Category.RENDER, "Color parsing: '{}' -> (direct)", text);
+            return component;
+        }
+
         try {
             // Store original text for debugging
             String originalText = text;
-            
-            // First, convert hex codes to MiniMessage format
-            text = convertHexCodes(text);
-            
-            // Convert legacy ampersand codes to MiniMessage format
-            text = convertLegacyCodes(text);
-            
+
+            // Convert hex and legacy ampersand codes to MiniMessage format
+            text = convertFormatCodes(text);
+
             // Only add <!italic> if the text doesn't contain complex MiniMessage formatting
-            boolean hasComplexFormatting = text.contains("gradient") || text.contains("rainbow") || 
-                                         text.contains("click") || text.contains("hover") || 
-                                         text.contains("transition") || text.contains("color:");
-            
-            if (!hasComplexFormatting && !text.contains("<!italic>")) {
+            if (!hasComplexFormatting(text) && !text.contains("<!italic>")) {
                 text = "<!italic>" + text;
             }
-            
+
             // Parse with MiniMessage
             Component component = miniMessage.deserialize(text);
-            
+
             // Debug output
-            plugin.debug("Color parsing: '" + originalText + "' -> '" + text + "'");
-            
+            plugin.getDebugLogger().log(Category.RENDER, "Color parsing: '{}' -> '{}'", originalText, text);
+
             return component;
         } catch (Exception e) {
             plugin.getLogger().warning("Failed to parse color text: '" + text + "' - " + e.getMessage());
-            
+
             // If parsing fails, try legacy parsing
             try {
                 Component legacy = legacySerializer.deserialize(text);
                 // Remove italic formatting from legacy text
-                return legacy.decoration(net.kyori.adventure.text.format.TextDecoration.ITALIC, false);
+                return legacy.decoration(TextDecoration.ITALIC, false);
             } catch (Exception e2) {
                 plugin.getLogger().warning("Legacy parsing also failed: " + e2.getMessage());
                 // If all fails, return as plain text without italic
-                return Component.text(text).decoration(net.kyori.adventure.text.format.TextDecoration.ITALIC, false);
+                return Component.text(text).decoration(TextDecoration.ITALIC, false);
             }
         }
     }
-    
+
     /**
-     * Convert hex color codes (&#FF0048) to MiniMessage format
-     * @param text The text containing hex codes
-     * @return Text with hex codes converted to MiniMessage format
+     * Convert hex color codes (&#FF0048) and legacy codes (&6&l) to MiniMessage format
+     * in a single pass over the text
+     * @param text The text containing hex and legacy codes
+     * @return Text with all codes converted to MiniMessage tags
      */
-    private String convertHexCodes(String text) {
-        Matcher matcher = HEX_PATTERN.matcher(text);
-        StringBuffer result = new StringBuffer();
-        
-        while (matcher.find()) {
-            String hexCode = matcher.group(1);
-            matcher.appendReplacement(result, "<color:#" + hexCode + ">");
-        }
-        matcher.appendTail(result);
-        
+    private String convertFormatCodes(String text) {
+        if (text.indexOf('&') < 0) {
+            return text;
+        }
+
+        StringBuilder result = new StringBuilder(text.length() + 16);
+        int length = text.length();
+        int plainStart = 0;
+        int i = 0;
+
+        while (i < length - 1) {
+            if (text.charAt(i) != '&') {
+                i++;
+                continue;
+            }
+
+            int hex = hexCodeAt(text, i);
+            if (hex >= 0) {
+                result.append(text, plainStart, i).append("<color:#").append(text, i + 2, i + 8).append('>');
+                i += 8;
+                plainStart = i;
+                continue;
+            }
+
+            char code = text.charAt(i + 1);
+            String tag = code < LEGACY_TAGS.length ? LEGACY_TAGS[code] : null;
+            if (tag != null) {
+                result.append(text, plainStart, i).append(tag);
+                i += 2;
+                plainStart = i;
+                continue;
+            }
+
+            i++;
+        }
+
+        result.append(text, plainStart, length);
         return result.toString();
     }
-    
+
+    /**
+     * Build a Component straight from text that holds only plain text, legacy codes and hex codes.
+     * The tree mirrors what MiniMessage builds for the converted text: every code opens a styled
+     * node that encloses the rest of the text until a reset, and the result is compacted the same way.
+     * @param text Text without MiniMessage tags
+     * @param italicOff Whether to apply the leading &lt;!italic&gt; parseColor adds
+     * @return The parsed Component
+     */
+    private Component parseDirect(String text, boolean italicOff) {
+        List<Component> rootChildren = new ArrayList<>();
+        Deque<TextComponent.Builder> open = new ArrayDeque<>();
+        boolean complexFormatting = false;
+        int childrenBeforeReset = -1;
+
+        int length = text.length();
+        int plainStart = 0;
+        int i = 0;
+
+        while (i <= length) {
+            boolean atEnd = i >= length - 1;
+            int hex = atEnd || text.charAt(i) != '&' ? -1 : hexCodeAt(text, i);
+            char code = atEnd || text.charAt(i) != '&' ? 0 : text.charAt(i + 1);
+            boolean isCode = hex >= 0 || (code < LEGACY_TAGS.length && LEGACY_TAGS[code] != null);
+
+            if (!isCode && i < length) {
+                i++;
+                continue;
+            }
+
+            int plainEnd = Math.min(i, length);
+            if (plainEnd > plainStart) {
+                String plain = text.substring(plainStart, plainEnd);
+                complexFormatting |= hasComplexFormatting(plain);
+                appendChild(rootChildren, open, Component.text(plain));
+            }
+            if (i >= length) break;
+
+            if (hex >= 0) {
+                complexFormatting = true; // the converted text contains "color:"
+                open.push(Component.text().color(TextColor.color(hex)));
+                i += 8;
+            } else if (LEGACY_COLORS[code] != null) {
+                open.push(Component.text().color(LEGACY_COLORS[code]));
+                i += 2;
+            } else if (LEGACY_DECORATIONS[code] != null) {
+                open.push(Component.text().decoration(LEGACY_DECORATIONS[code], true));
+                i += 2;
+            } else {
+                // Reset closes every open node back to the root
+                closeAll(rootChildren, open);
+                if (childrenBeforeReset < 0) {
+                    childrenBeforeReset = rootChildren.size();
+                }
+                i += 2;
+            }
+            plainStart = i;
+        }
+        closeAll(rootChildren, open);
+
+        if (italicOff && !complexFormatting) {
+            // Everything before the first reset sits inside the leading <!italic> node
+            int split = childrenBeforeReset < 0 ? rootChildren.size() : childrenBeforeReset;
+            Component italic = Component.text()
+                    .decoration(TextDecoration.ITALIC, false)
+                    .append(rootChildren.subList(0, split))
+                    .build();
+            List<Component> wrapped = new ArrayList<>(rootChildren.size() - split + 1);
+            wrapped.add(italic);
+            wrapped.addAll(rootChildren.subList(split, rootChildren.size()));
+            rootChildren = wrapped;
+        }
+
+        return Component.text().append(rootChildren).build().compact();
+    }
+
+    private static void appendChild(List<Component> rootChildren, Deque<TextComponent.Builder> open, Component child) {
+        if (open.isEmpty()) {
+            rootChildren.add(child);
+        } else {
+            open.peek().append(child);
+        }
+    }
+
+    private static void closeAll(List<Component> rootChildren, Deque<TextComponent.Builder> open) {
+        while (!open.isEmpty()) {
+            Component closed = open.pop().build();
+            appendChild(rootChildren, open, closed);
+        }
+    }
+
     /**
-     * Convert legacy color codes (&6&l) to MiniMessage format
-     * @param text The text containing legacy codes
-     * @return Text with legacy codes converted to MiniMessage format
+     * Read a &#RRGGBB code starting at the given index
+     * @return The RGB value, or -1 if there is no hex code at that index
      */
-    private String convertLegacyCodes(String text) {
-        // Handle formatting codes
-        text = text.replace("&l", "<bold>").replace("&L", "<bold>");
-        text = text.replace("&o", "<italic>").replace("&O", "<italic>");
-        text = text.replace("&n", "<underlined>").replace("&N", "<underlined>");
-        text = text.replace("&m", "<strikethrough>").replace("&M", "<strikethrough>");
-        text = text.replace("&k", "<obfuscated>").replace("&K", "<obfuscated>");
-        text = text.replace("&r", "<reset>").replace("&R", "<reset>");
-        
-        // Handle color codes
-        text = text.replace("&0", "<black>").replace("&0", "<black>");
-        text = text.replace("&1", "<dark_blue>").replace("&1", "<dark_blue>");
-        text = text.replace("&2", "<dark_green>").replace("&2", "<dark_green>");
-        text = text.replace("&3", "<dark_aqua>").replace("&3", "<dark_aqua>");
-        text = text.replace("&4", "<dark_red>").replace("&4", "<dark_red>");
-        text = text.replace("&5", "<dark_purple>").replace("&5", "<dark_purple>");
-        text = text.replace("&6", "<gold>").replace("&6", "<gold>");
-        text = text.replace("&7", "<gray>").replace("&7", "<gray>");
-        text = text.replace("&8", "<dark_gray>").replace("&8", "<dark_gray>");
-        text = text.replace("&9", "<blue>").replace("&9", "<blue>");
-        text = text.replace("&a", "<green>").replace("&A", "<green>");
-        text = text.replace("&b", "<aqua>").replace("&B", "<aqua>");
-        text = text.replace("&c", "<red>").replace("&C", "<red>");
-        text = text.replace("&d", "<light_purple>").replace("&D", "<light_purple>");
-        text = text.replace("&e", "<yellow>").replace("&E", "<yellow>");
-        text = text.replace("&f", "<white>").replace("&F", "<white>");
-        
-        return text;
-    }
-    
+    private static int hexCodeAt(String text, int index) {
+        if (index + 8 > text.length() || text.charAt(index) != '&' || text.charAt(index + 1) != '#') {
+            return -1;
+        }
+
+        int value = 0;
+        for (int i = index + 2; i < index + 8; i++) {
+            int digit = Character.digit(text.charAt(i), 16);
+            if (digit < 0 || text.charAt(i) > 'f') {
+                return -1;
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    private static boolean isDirectFormattable(String text) {
+        return text.indexOf('<') < 0 && text.indexOf('\\') < 0;
+    }
+
+    private static boolean hasComplexFormatting(String text) {
+        for (String marker : COMPLEX_FORMATTING) {
+            if (text.contains(marker)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Parse a string with MiniMessage color codes into a legacy string
      * @param text The text to parse
@@ -137,19 +343,22 @@ public class ColorUtil {
         if (text == null || text.isEmpty()) {
             return "";
         }
-        
+
+        if (isDirectFormattable(text)) {
+            return legacySerializer.serialize(parseDirect(text, false));
+        }
+
         try {
             // First convert hex and legacy codes
-            text = convertHexCodes(text);
-            text = convertLegacyCodes(text);
-            
+            text = convertFormatCodes(text);
+
             Component component = miniMessage.deserialize(text);
             return legacySerializer.serialize(component);
         } catch (Exception e) {
             return text;
         }
     }
-    
+
     /**
      * Strip all color codes from text
      * @param text The text to strip
@@ -159,12 +368,15 @@ public class ColorUtil {
         if (text == null || text.isEmpty()) {
             return text;
         }
-        
+
+        if (isDirectFormattable(text)) {
+            return net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer.plainText().serialize(parseDirect(text, false));
+        }
+
         try {
             // Convert all formats first
-            text = convertHexCodes(text);
-            text = convertLegacyCodes(text);
-            
+            text = convertFormatCodes(text);
+
             Component component = miniMessage.deserialize(text);
             return net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer.plainText().serialize(component);
         } catch (Exception e) {
@@ -172,4 +384,53 @@ public class ColorUtil {
             return text.replaceAll("&[0-9a-fk-or]", "").replaceAll("&#[A-Fa-f0-9]{6}", "");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Size-bounded LRU map of parsed components keyed by the raw input string
+     */
+    private static final class ComponentCache {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+        private volatile int maxSize;
+        private final Map<String, Component> entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Component> eldest) {
+                if (size() > maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        synchronized void resize(int maxSize) {
+            this.maxSize = Math.max(0, maxSize);
+            entries.clear();
+        }
+
+        Component get(String key) {
+            if (maxSize == 0) return null;
+
+            Component component;
+            synchronized (this) {
+                component = entries.get(key);
+            }
+            if (component != null) {
+                hits.increment();
+            } else {
+                misses.increment();
+            }
+            return component;
+        }
+
+        synchronized void put(String key, Component component) {
+            if (maxSize == 0) return;
+            entries.put(key, component);
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.itemx.util;
+
+import com.itemx.ItemX;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Category-scoped debug output. Every logging call first checks a cached per-category flag,
+ * so a disabled category costs a single array read: suppliers are never invoked and
+ * templates are never formatted. Arguments are still evaluated by the caller, and primitives
+ * boxed, before that check; hot paths that pass primitives or build arguments guard the call
+ * with {@link #isEnabled(Category)}.
+ */
+public class DebugLogger {
+
+    public enum Category {
+        PARSER,
+        RENDER,
+        NBT,
+        EVENTS;
+
+        private final String configKey = name().toLowerCase();
+
+        public String getConfigKey() {
+            return configKey;
+        }
+    }
+
+    private final ItemX plugin;
+    private volatile boolean[] enabled = new boolean[Category.values().length];
+    private volatile boolean console;
+    private volatile RingBuffer buffer;
+
+    public DebugLogger(ItemX plugin) {
+        this.plugin = plugin;
+        reload();
+    }
+
+    /**
+     * Re-read the debug section of the config. Accepts the old boolean form ({@code debug: true}),
+     * which enables every category on the console.
+     */
+    public void reload() {
+        boolean[] flags = new boolean[Category.values().length];
+        int bufferSize = 0;
+        boolean logToConsole = true;
+
+        if (plugin.getConfig().isBoolean("debug")) {
+            Arrays.fill(flags, plugin.getConfig().getBoolean("debug"));
+        } else {
+            ConfigurationSection section = plugin.getConfig().getConfigurationSection("debug");
+            if (section != null && section.getBoolean("enabled", false)) {
+                for (Category category : Category.values()) {
+                    flags[category.ordinal()] = section.getBoolean("categories." + category.getConfigKey(), true);
+                }
+                logToConsole = section.getBoolean("console", true);
+                bufferSize = Math.max(0, section.getInt("buffer-size", 0));
+            }
+        }
+
+        RingBuffer current = buffer;
+        if (bufferSize == 0) {
+            buffer = null;
+        } else if (current == null || current.capacity() != bufferSize) {
+            buffer = new RingBuffer(bufferSize);
+        }
+        console = logToConsole;
+        enabled = flags;
+    }
+
+    public boolean isEnabled(Category category) {
+        return enabled[category.ordinal()];
+    }
+
+    public void log(Category category, String message) {
+        if (!enabled[category.ordinal()]) return;
+        write(category, message);
+    }
+
+    public void log(Category category, Supplier<String> message) {
+        if (!enabled[category.ordinal()]) return;
+        write(category, message.get());
+    }
+
+    public void log(Category category, String template, Object arg) {
+        if (!enabled[category.ordinal()]) return;
+        write(category, format(template, arg, null, null));
+    }
+
+    public void log(Category category, String template, Object arg1, Object arg2) {
+        if (!enabled[category.ordinal()]) return;
+        write(category, format(template, arg1, arg2, null));
+    }
+
+    public void log(Category category, String template, Object arg1, Object arg2, Object arg3) {
+        if (!enabled[category.ordinal()]) return;
+        write(category, format(template, arg1, arg2, arg3));
+    }
+
+    public boolean isBuffering() {
+        return buffer != null;
+    }
+
+    /**
+     * Write the buffered debug entries, oldest first, to a timestamped file in the plugin's debug folder
+     * @return The written file, or null if buffering is disabled
+     * @throws IOException If the file could not be written
+     */
+    public File dump() throws IOException {
+        RingBuffer current = buffer;
+        if (current == null) return null;
+
+        File directory = new File(plugin.getDataFolder(), "debug");
+        directory.mkdirs();
+        File file = new File(directory, "debug-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".log");
+
+        SimpleDateFormat timeFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            current.forEach((time, category, message) -> {
+                writer.write(timeFormat.format(new Date(time)) + " [" + category + "] " + message);
+                writer.write(System.lineSeparator());
+            });
+        }
+        return file;
+    }
+
+    /**
+     * Number of entries currently held in the ring buffer
+     */
+    public int getBufferedCount() {
+        RingBuffer current = buffer;
+        return current != null ? current.size() : 0;
+    }
+
+    private void write(Category category, String message) {
+        if (console) {
+            plugin.getLogger().log(Level.INFO, "[DEBUG/" + category + "] " + message);
+        }
+        RingBuffer current = buffer;
+        if (current != null) {
+            current.add(System.currentTimeMillis(), category, message);
+        }
+    }
+
+    private static String format(String template, Object arg1, Object arg2, Object arg3) {
+        StringBuilder result = new StringBuilder(template.length() + 32);
+        Object[] args = {arg1, arg2, arg3};
+        int argIndex = 0;
+        int start = 0;
+        int index;
+        while ((index = template.indexOf("{}", start)) >= 0 && argIndex < args.length) {
+            result.append(template, start, index).append(args[argIndex++]);
+            start = index + 2;
+        }
+        return result.append(template, start, template.length()).toString();
+    }
+
+    private interface EntryVisitor {
+        void visit(long time, Category category, String message) throws IOException;
+    }
+
+    /**
+     * Fixed-size buffer that keeps the most recent debug entries
+     */
+    private static final class RingBuffer {
+        private final long[] times;
+        private final Category[] categories;
+        private final String[] messages;
+        private int next;
+        private int size;
+
+        RingBuffer(int capacity) {
+            this.times = new long[capacity];
+            this.categories = new Category[capacity];
+            this.messages = new String[capacity];
+        }
+
+        int capacity() {
+            return messages.length;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized void add(long time, Category category, String message) {
+            times[next] = time;
+            categories[next] = category;
+            messages[next] = message;
+            next = (next + 1) % messages.length;
+            if (size < messages.length) size++;
+        }
+
+        synchronized void forEach(EntryVisitor visitor) throws IOException {
+            int start = (next - size + messages.length) % messages.length;
+            for (int i = 0; i < size; i++) {
+                int index = (start + i) % messages.length;
+                visitor.visit(times[index], categories[index], messages[index]);
+            }
+        }
+    }
+}
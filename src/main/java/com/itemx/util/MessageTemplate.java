@@ -0,0 +1,235 @@
+package com.itemx.util;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.TranslatableComponent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A configured message parsed once into a component tree with typed placeholder slots.
+ * <p>
+ * Each known {@code %placeholder%} is swapped for a private-use marker character before parsing, and the
+ * markers found in the parsed text are turned into slot components. Rendering only copies the path
+ * down to each slot and inserts the value as plain text, inheriting the style around it.
+ * Messages where a marker would not survive as text (inside a tag argument, or spread over
+ * characters by a gradient) are kept as raw strings and parsed per render instead.
+ */
+public final class MessageTemplate {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("%([A-Za-z][A-Za-z0-9_]*)%");
+    private static final char MARKER_BASE = '\uE000';
+    private static final String SLOT_KEY_PREFIX = "itemx.slot.";
+    private static final String[] PER_CHARACTER_TAGS = {"<gradient", "<rainbow", "<transition"};
+
+    private final String raw;
+    private final List<String> slots;
+    private final Component compiled;
+    private final ColorUtil colorUtil;
+
+    private MessageTemplate(String raw, List<String> slots, Component compiled, ColorUtil colorUtil) {
+        this.raw = raw;
+        this.slots = slots;
+        this.compiled = compiled;
+        this.colorUtil = colorUtil;
+    }
+
+    /**
+     * Compile a message
+     * @param raw The configured text
+     * @param known The placeholders this message accepts, with their percent signs, e.g. {@code %item%}
+     * @param colorUtil Used to parse the text
+     * @param unknown Receives every placeholder in the text that is not known; those stay literal text
+     */
+    public static MessageTemplate compile(String raw, Collection<String> known, ColorUtil colorUtil, Consumer<String> unknown) {
+        return compile(raw, known::contains, colorUtil, unknown);
+    }
+
+    /**
+     * Compile text where every {@code %placeholder%} is a slot, such as item names and lore
+     */
+    public static MessageTemplate compile(String raw, ColorUtil colorUtil) {
+        return compile(raw, placeholder -> true, colorUtil, placeholder -> {});
+    }
+
+    private static MessageTemplate compile(String raw, Predicate<String> known, ColorUtil colorUtil, Consumer<String> unknown) {
+        List<String> slots = new ArrayList<>();
+        StringBuilder marked = new StringBuilder(raw.length());
+        int occurrences = 0;
+
+        Matcher matcher = PLACEHOLDER.matcher(raw);
+        int last = 0;
+        while (matcher.find()) {
+            String placeholder = matcher.group();
+            if (!known.test(placeholder)) {
+                unknown.accept(placeholder);
+                continue;
+            }
+            int slot = slots.indexOf(placeholder);
+            if (slot < 0) {
+                slot = slots.size();
+                slots.add(placeholder);
+            }
+            marked.append(raw, last, matcher.start()).append((char) (MARKER_BASE + slot));
+            last = matcher.end();
+            occurrences++;
+        }
+        marked.append(raw, last, raw.length());
+
+        if (slots.isEmpty()) {
+            return new MessageTemplate(raw, slots, colorUtil.parseColor(raw), colorUtil);
+        }
+        if (!spreadsPerCharacter(raw)) {
+            int[] found = new int[1];
+            Component compiled = insertSlots(colorUtil.parseColor(marked.toString()), slots.size(), found);
+            if (found[0] == occurrences) {
+                return new MessageTemplate(raw, List.copyOf(slots), compiled, colorUtil);
+            }
+        }
+        return new MessageTemplate(raw, List.copyOf(slots), null, colorUtil);
+    }
+
+    /**
+     * Render the message
+     * @param replacements Alternating placeholder and value pairs, e.g. {@code "%item%", id}
+     */
+    public Component render(String... replacements) {
+        if (slots.isEmpty()) {
+            return compiled;
+        }
+
+        if (compiled == null) {
+            String message = raw;
+            for (int i = 0; i + 1 < replacements.length; i += 2) {
+                if (slots.contains(replacements[i])) {
+                    message = message.replace(replacements[i], String.valueOf(replacements[i + 1]));
+                }
+            }
+            return colorUtil.parseColor(message);
+        }
+
+        String[] values = new String[slots.size()];
+        for (int slot = 0; slot < values.length; slot++) {
+            values[slot] = valueOf(slots.get(slot), replacements);
+        }
+        return renderSlots(values);
+    }
+
+    /**
+     * Render the message from values given in the order of {@link #getPlaceholders()}
+     */
+    public Component renderSlots(String[] values) {
+        if (slots.isEmpty()) {
+            return compiled;
+        }
+
+        if (compiled == null) {
+            String message = raw;
+            for (int slot = 0; slot < slots.size(); slot++) {
+                message = message.replace(slots.get(slot), values[slot]);
+            }
+            return colorUtil.parseColor(message);
+        }
+
+        Component[] components = new Component[slots.size()];
+        for (int slot = 0; slot < components.length; slot++) {
+            components[slot] = Component.text(values[slot]);
+        }
+        return fill(compiled, components);
+    }
+
+    /**
+     * The placeholders this message uses, in order of first appearance
+     */
+    public List<String> getPlaceholders() {
+        return slots;
+    }
+
+    /**
+     * Whether the message renders by filling slots rather than parsing per render
+     */
+    public boolean isPrecompiled() {
+        return slots.isEmpty() || compiled != null;
+    }
+
+    private static String valueOf(String placeholder, String[] replacements) {
+        for (int i = 0; i + 1 < replacements.length; i += 2) {
+            if (placeholder.equals(replacements[i])) {
+                return String.valueOf(replacements[i + 1]);
+            }
+        }
+        // Not supplied, leave it visible like the old string replacement did
+        return placeholder;
+    }
+
+    private static boolean spreadsPerCharacter(String raw) {
+        String lower = raw.toLowerCase(Locale.ROOT);
+        for (String tag : PER_CHARACTER_TAGS) {
+            if (lower.contains(tag)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Split text containing markers into static text and slot components
+     */
+    private static Component insertSlots(Component component, int slotCount, int[] found) {
+        List<Component> children = new ArrayList<>(component.children().size());
+        for (Component child : component.children()) {
+            children.add(insertSlots(child, slotCount, found));
+        }
+
+        if (component instanceof TextComponent text && containsMarker(text.content(), slotCount)) {
+            String content = text.content();
+            List<Component> parts = new ArrayList<>();
+            int start = 0;
+            for (int i = 0; i < content.length(); i++) {
+                int slot = content.charAt(i) - MARKER_BASE;
+                if (slot < 0 || slot >= slotCount) continue;
+                if (i > start) {
+                    parts.add(Component.text(content.substring(start, i)));
+                }
+                parts.add(Component.translatable(SLOT_KEY_PREFIX + slot));
+                found[0]++;
+                start = i + 1;
+            }
+            if (start < content.length()) {
+                parts.add(Component.text(content.substring(start)));
+            }
+            parts.addAll(children);
+            return Component.text().style(text.style()).append(parts).build();
+        }
+        return component.children(children);
+    }
+
+    private static boolean containsMarker(String content, int slotCount) {
+        for (int i = 0; i < content.length(); i++) {
+            int slot = content.charAt(i) - MARKER_BASE;
+            if (slot >= 0 && slot < slotCount) return true;
+        }
+        return false;
+    }
+
+    private static Component fill(Component component, Component[] values) {
+        if (component instanceof TranslatableComponent translatable && translatable.key().startsWith(SLOT_KEY_PREFIX)) {
+            return values[Integer.parseInt(translatable.key().substring(SLOT_KEY_PREFIX.length()))];
+        }
+
+        List<Component> children = component.children();
+        if (children.isEmpty()) {
+            return component;
+        }
+        List<Component> filled = new ArrayList<>(children.size());
+        for (Component child : children) {
+            filled.add(fill(child, values));
+        }
+        return component.children(filled);
+    }
+}
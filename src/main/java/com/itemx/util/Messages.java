@@ -0,0 +1,104 @@
+package com.itemx.util;
+
+import com.itemx.ItemX;
+import net.kyori.adventure.text.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Every configured message compiled into a {@link MessageTemplate}, keyed by config path.
+ * Templates are rebuilt on reload; placeholders a message does not support are reported then.
+ */
+public class Messages {
+
+    private static final Map<String, List<String>> PLACEHOLDERS = new HashMap<>();
+    private static final Map<String, String> FALLBACKS = new HashMap<>();
+
+    static {
+        register("prefix", "<gray>[<aqua>ItemX</aqua>]</gray> ");
+        register("give-message", "<green>Gave <yellow>%amount%x %item%</yellow> to <blue>%player%</blue>",
+                "%item%", "%amount%", "%player%");
+        register("get-message", "<green>You received <yellow>%item%</yellow>", "%item%");
+        register("get-category-message", "<green>You received <yellow>%count%</yellow> items from category <aqua>%category%</aqua>",
+                "%count%", "%category%");
+        register("messages.player-not-found", null, "%player%");
+        register("messages.reload-deferred-warnings",
+                "<yellow>%count%</yellow> <gray>problems were found in lazily loaded items since the last reload, see the console.", "%count%");
+        register("messages.item-not-found", null, "%item%");
+        register("messages.debug-dumped", null, "%count%", "%file%");
+        register("messages.debug-dump-failed", null, "%error%");
+        register("messages.invalid-amount", null, "%amount%", "%max%");
+        register("messages.giveall-started", null, "%amount%", "%item%", "%count%");
+        register("messages.giveall-progress", null, "%done%", "%total%");
+        register("messages.giveall-complete", null, "%amount%", "%item%", "%delivered%", "%skipped%", "%time%");
+        register("messages.cooldown", "<red>%item%</red> <gray>is ready in</gray> <yellow>%time%s</yellow>", "%item%", "%time%");
+        register("messages.stats-line", null, "%name%", "%calls%", "%p50%", "%p99%", "%max%", "%alloc%");
+        register("messages.stats-caches", null, "%prototype_hits%", "%prototype_misses%",
+                "%component_hits%", "%component_misses%", "%component_size%");
+    }
+
+    private static void register(String path, String fallback, String... placeholders) {
+        PLACEHOLDERS.put(path, List.of(placeholders));
+        if (fallback != null) {
+            FALLBACKS.put(path, fallback);
+        }
+    }
+
+    private final ItemX plugin;
+    private volatile Map<String, MessageTemplate> templates = new ConcurrentHashMap<>();
+
+    public Messages(ItemX plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Compile every message in the config. Must run after {@link ColorUtil#reload()}.
+     */
+    public void reload() {
+        Set<String> paths = new LinkedHashSet<>(PLACEHOLDERS.keySet());
+        if (plugin.getConfig().isConfigurationSection("messages")) {
+            for (String key : plugin.getConfig().getConfigurationSection("messages").getKeys(false)) {
+                paths.add("messages." + key);
+            }
+        }
+
+        Map<String, MessageTemplate> compiled = new ConcurrentHashMap<>();
+        for (String path : paths) {
+            compiled.put(path, compile(path));
+        }
+        templates = compiled;
+    }
+
+    /**
+     * Render a message
+     * @param path The config path, e.g. {@code give-message} or {@code messages.item-not-found}
+     * @param replacements Alternating placeholder and value pairs
+     */
+    public Component render(String path, String... replacements) {
+        return get(path).render(replacements);
+    }
+
+    public MessageTemplate get(String path) {
+        MessageTemplate template = templates.get(path);
+        if (template == null) {
+            // Messages missing from the config are compiled on first use so the warning shows once
+            template = templates.computeIfAbsent(path, this::compile);
+        }
+        return template;
+    }
+
+    private MessageTemplate compile(String path) {
+        String fallback = FALLBACKS.getOrDefault(path, "<red>Missing message: " + path.substring(path.indexOf('.') + 1));
+        String raw = plugin.getConfig().getString(path, fallback);
+        List<String> known = PLACEHOLDERS.getOrDefault(path, Collections.emptyList());
+        return MessageTemplate.compile(raw, known, plugin.getColorUtil(), placeholder ->
+                plugin.getLogger().warning("Message '" + path + "' uses unknown placeholder " + placeholder
+                        + (known.isEmpty() ? ", it takes none" : ", supported: " + String.join(" ", known))));
+    }
+}
@@ -0,0 +1,276 @@
+package com.itemx.util;
+
+import com.itemx.ItemX;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Low-overhead runtime metrics for the ItemX hot paths. Each timer counts calls and records latencies
+ * into a log-bucketed histogram of striped counters, so recording never locks and costs a few adds.
+ * Allocation tracking reads the per-thread allocation counter of the JVM and is off by default.
+ * <p>
+ * Other plugins can pull the numbers through {@link #snapshot(Timer)} or {@link #snapshotAll()}.
+ */
+public class Metrics {
+
+    public enum Timer {
+        CREATE_ITEM,
+        PARSE_COLOR,
+        PARSE_FILE,
+        LOAD_ITEMS,
+        INTERACT,
+        BLOCK_PLACE;
+
+        private final String displayName = name().toLowerCase().replace('_', '-');
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    private final ItemX plugin;
+    private final Histogram[] histograms = new Histogram[Timer.values().length];
+    private final com.sun.management.ThreadMXBean allocationBean;
+    private volatile boolean enabled;
+    private volatile boolean trackAllocations;
+
+    public Metrics(ItemX plugin) {
+        this.plugin = plugin;
+        for (Timer timer : Timer.values()) {
+            histograms[timer.ordinal()] = new Histogram();
+        }
+
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        this.allocationBean = bean instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean) bean : null;
+        reload();
+    }
+
+    public void reload() {
+        enabled = plugin.getConfig().getBoolean("metrics.enabled", true);
+        boolean allocations = plugin.getConfig().getBoolean("metrics.track-allocations", false);
+        if (allocations && (allocationBean == null || !allocationBean.isThreadAllocatedMemorySupported())) {
+            plugin.getLogger().warning("metrics.track-allocations is enabled but this JVM cannot measure thread allocations");
+            allocations = false;
+        }
+        if (allocations && !allocationBean.isThreadAllocatedMemoryEnabled()) {
+            allocationBean.setThreadAllocatedMemoryEnabled(true);
+        }
+        trackAllocations = allocations;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isTrackingAllocations() {
+        return trackAllocations;
+    }
+
+    /**
+     * Start a measurement
+     * @return The start time to pass to {@link #record}, or 0 when metrics are disabled
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Bytes allocated so far by the current thread, to pass to {@link #record}
+     * @return The counter, or -1 when allocation tracking is off
+     */
+    public long allocatedBytes() {
+        return trackAllocations ? allocationBean.getCurrentThreadAllocatedBytes() : -1L;
+    }
+
+    /**
+     * Record a measurement started with {@link #start()}
+     */
+    public void record(Timer timer, long startNanos) {
+        record(timer, startNanos, -1L);
+    }
+
+    /**
+     * Record a measurement started with {@link #start()} and {@link #allocatedBytes()}
+     */
+    public void record(Timer timer, long startNanos, long startAllocated) {
+        if (startNanos == 0L) return;
+
+        long allocated = -1L;
+        if (startAllocated >= 0 && trackAllocations) {
+            allocated = allocationBean.getCurrentThreadAllocatedBytes() - startAllocated;
+        }
+        histograms[timer.ordinal()].record(System.nanoTime() - startNanos, allocated);
+    }
+
+    public Snapshot snapshot(Timer timer) {
+        return histograms[timer.ordinal()].snapshot(timer);
+    }
+
+    /**
+     * A snapshot of every timer, in declaration order
+     */
+    public Map<Timer, Snapshot> snapshotAll() {
+        Map<Timer, Snapshot> snapshots = new EnumMap<>(Timer.class);
+        for (Timer timer : Timer.values()) {
+            snapshots.put(timer, snapshot(timer));
+        }
+        return Collections.unmodifiableMap(snapshots);
+    }
+
+    public void reset() {
+        for (Histogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * Latency histogram with four sub-buckets per power of two, so any reported percentile
+     * is within 25% of the true value
+     */
+    private static final class Histogram {
+        private static final int BUCKETS = 256;
+
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+        private final LongAdder allocatedBytes = new LongAdder();
+        private final LongAdder allocationSamples = new LongAdder();
+
+        private Histogram() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos, long allocated) {
+            if (nanos < 0) nanos = 0;
+            buckets[bucketOf(nanos)].increment();
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            if (allocated >= 0) {
+                allocatedBytes.add(allocated);
+                allocationSamples.increment();
+            }
+        }
+
+        Snapshot snapshot(Timer timer) {
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets[i].sum();
+                total += counts[i];
+            }
+            long max = maxNanos.get();
+            long samples = allocationSamples.sum();
+            return new Snapshot(timer, count.sum(), totalNanos.sum(),
+                    percentile(counts, total, 0.50, max), percentile(counts, total, 0.99, max), max,
+                    samples > 0 ? allocatedBytes.sum() / samples : -1L);
+        }
+
+        void reset() {
+            for (LongAdder bucket : buckets) {
+                bucket.reset();
+            }
+            count.reset();
+            totalNanos.reset();
+            maxNanos.reset();
+            allocatedBytes.reset();
+            allocationSamples.reset();
+        }
+
+        private static long percentile(long[] counts, long total, double percentile, long max) {
+            if (total == 0) return 0L;
+            long target = (long) Math.ceil(total * percentile);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= target) {
+                    return Math.min(upperBound(i), max);
+                }
+            }
+            return max;
+        }
+
+        private static int bucketOf(long nanos) {
+            if (nanos < 4) return (int) nanos;
+            int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+            int sub = (int) (nanos >>> (exponent - 2)) & 3;
+            return 4 * (exponent - 1) + sub;
+        }
+
+        private static long upperBound(int bucket) {
+            if (bucket < 4) return bucket;
+            int exponent = bucket / 4 + 1;
+            int sub = bucket % 4;
+            long lower = (long) (4 + sub) << (exponent - 2);
+            return lower + (1L << (exponent - 2)) - 1;
+        }
+    }
+
+    /**
+     * The state of one timer at the moment it was taken. Times are in nanoseconds.
+     */
+    public static final class Snapshot {
+        private final Timer timer;
+        private final long count;
+        private final long totalNanos;
+        private final long p50Nanos;
+        private final long p99Nanos;
+        private final long maxNanos;
+        private final long allocatedBytesPerCall;
+
+        private Snapshot(Timer timer, long count, long totalNanos, long p50Nanos, long p99Nanos, long maxNanos,
+                         long allocatedBytesPerCall) {
+            this.timer = timer;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.p50Nanos = p50Nanos;
+            this.p99Nanos = p99Nanos;
+            this.maxNanos = maxNanos;
+            this.allocatedBytesPerCall = allocatedBytesPerCall;
+        }
+
+        public Timer getTimer() {
+            return timer;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMeanNanos() {
+            return count > 0 ? totalNanos / count : 0L;
+        }
+
+        public long getP50Nanos() {
+            return p50Nanos;
+        }
+
+        public long getP99Nanos() {
+            return p99Nanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        /**
+         * Mean bytes allocated per call, or -1 if allocations were not tracked
+         */
+        public long getAllocatedBytesPerCall() {
+            return allocatedBytesPerCall;
+        }
+    }
+}
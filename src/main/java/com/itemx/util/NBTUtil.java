@@ -1,21 +1,94 @@
 package com.itemx.util;
 
 import com.itemx.ItemX;
+import com.itemx.util.DebugLogger.Category;
 import org.bukkit.NamespacedKey;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 public class NBTUtil {
     
     private final ItemX plugin;
     private final NamespacedKey itemIdKey;
+    private final NamespacedKey loreHashKey;
+    private final NamespacedKey revisionKey;
+    // Custom data keys resolved against the namespace prefix; cleared when the prefix changes
+    private final Map<String, NamespacedKey> customKeys = new ConcurrentHashMap<>();
+    private volatile String namespacePrefix;
     
     public NBTUtil(ItemX plugin) {
         this.plugin = plugin;
         String keyName = plugin.getConfig().getString("nbt.key", "itemx:id");
         this.itemIdKey = NamespacedKey.fromString(keyName);
+        this.loreHashKey = new NamespacedKey(itemIdKey.getNamespace(), "lore_hash");
+        this.revisionKey = new NamespacedKey(itemIdKey.getNamespace(), "rev");
+        reload();
+    }
+    
+    /**
+     * Re-read the custom data namespace prefix. The item id key is fixed for the lifetime
+     * of the plugin, since changing it would orphan every item already handed out.
+     */
+    public void reload() {
+        String prefix = plugin.getConfig().getString("nbt.namespace-prefix", "itemx");
+        if (!prefix.equals(namespacePrefix)) {
+            namespacePrefix = prefix;
+            customKeys.clear();
+        }
+    }
+    
+    /**
+     * Take one snapshot of an item's data to read the ItemX ID and any number of custom keys from.
+     * Bukkit copies the whole meta on every {@link ItemStack#getItemMeta()}, so callers that need
+     * more than one value should read them all from a single snapshot.
+     * @param item The item to read
+     * @return The snapshot, or null if the item has no meta and so no ItemX data
+     */
+    public ItemData read(ItemStack item) {
+        if (item == null || !item.hasItemMeta()) return null;
+        
+        ItemMeta meta = item.getItemMeta();
+        if (meta == null) return null;
+        
+        return new ItemData(meta.getPersistentDataContainer());
+    }
+    
+    /**
+     * Read ItemX data from a meta the caller already holds, e.g. one it is about to modify and write back
+     */
+    public ItemData read(ItemMeta meta) {
+        return new ItemData(meta.getPersistentDataContainer());
+    }
+    
+    /**
+     * Key of the fingerprint of the placeholder values an item's lore was last rendered with
+     */
+    public NamespacedKey getLoreHashKey() {
+        return loreHashKey;
+    }
+    
+    /**
+     * The resolved key for a custom data entry under the configured namespace prefix
+     * @return The key, or null if the key name is not a valid namespaced key
+     */
+    public NamespacedKey getCustomKey(String key) {
+        NamespacedKey namespacedKey = customKeys.get(key);
+        if (namespacedKey == null) {
+            namespacedKey = NamespacedKey.fromString(namespacePrefix + ":" + key);
+            if (namespacedKey == null) {
+                plugin.getLogger().warning("Invalid custom data key '" + namespacePrefix + ":" + key + "'");
+                return null;
+            }
+            customKeys.put(key, namespacedKey);
+        }
+        return namespacedKey;
     }
     
     /**
@@ -33,22 +106,39 @@ public class NBTUtil {
         container.set(itemIdKey, PersistentDataType.STRING, id);
         item.setItemMeta(meta);
         
-        plugin.debug("Set NBT ID '" + id + "' on item " + item.getType());
+        plugin.getDebugLogger().log(Category.NBT, "Set NBT ID '{}' on item {}", id, item.getType());
     }
     
     /**
-     * Get the ItemX ID from an item
-     * @param item The item to check
-     * @return The ID or null if not found
+     * Set the ItemX ID together with the revision of the definition the item was built from
+     * @param item The item to modify
+     * @param id The ID to set
+     * @param revision The definition's content hash
      */
-    public String getItemId(ItemStack item) {
-        if (item == null) return null;
+    public void setItemId(ItemStack item, String id, long revision) {
+        if (item == null || id == null) return;
         
         ItemMeta meta = item.getItemMeta();
-        if (meta == null) return null;
+        if (meta == null) return;
         
         PersistentDataContainer container = meta.getPersistentDataContainer();
-        return container.get(itemIdKey, PersistentDataType.STRING);
+        container.set(itemIdKey, PersistentDataType.STRING, id);
+        container.set(revisionKey, PersistentDataType.LONG, revision);
+        item.setItemMeta(meta);
+        
+        if (plugin.getDebugLogger().isEnabled(Category.NBT)) {
+            plugin.getDebugLogger().log(Category.NBT, "Set NBT ID '{}' (rev {}) on item {}", id, Long.toHexString(revision), item.getType());
+        }
+    }
+    
+    /**
+     * Get the ItemX ID from an item
+     * @param item The item to check
+     * @return The ID or null if not found
+     */
+    public String getItemId(ItemStack item) {
+        ItemData data = read(item);
+        return data != null ? data.getItemId() : null;
     }
     
     /**
@@ -57,13 +147,8 @@ public class NBTUtil {
      * @return True if the item has an ItemX ID
      */
     public boolean hasItemId(ItemStack item) {
-        if (item == null) return false;
-        
-        ItemMeta meta = item.getItemMeta();
-        if (meta == null) return false;
-        
-        PersistentDataContainer container = meta.getPersistentDataContainer();
-        return container.has(itemIdKey, PersistentDataType.STRING);
+        ItemData data = read(item);
+        return data != null && data.hasItemId();
     }
     
     /**
@@ -80,7 +165,7 @@ public class NBTUtil {
         container.remove(itemIdKey);
         item.setItemMeta(meta);
         
-        plugin.debug("Removed NBT ID from item " + item.getType());
+        plugin.getDebugLogger().log(Category.NBT, "Removed NBT ID from item {}", item.getType());
     }
     
     /**
@@ -92,17 +177,17 @@ public class NBTUtil {
     public void setCustomData(ItemStack item, String key, String value) {
         if (item == null || key == null || value == null) return;
         
+        NamespacedKey namespacedKey = getCustomKey(key);
+        if (namespacedKey == null) return;
+        
         ItemMeta meta = item.getItemMeta();
         if (meta == null) return;
         
-        String namespacePrefix = plugin.getConfig().getString("nbt.namespace-prefix", "itemx");
-        NamespacedKey namespacedKey = NamespacedKey.fromString(namespacePrefix + ":" + key);
-        
         PersistentDataContainer container = meta.getPersistentDataContainer();
         container.set(namespacedKey, PersistentDataType.STRING, value);
         item.setItemMeta(meta);
         
-        plugin.debug("Set custom NBT data '" + key + "' = '" + value + "' on item " + item.getType());
+        plugin.getDebugLogger().log(Category.NBT, "Set custom NBT data '{}' = '{}' on item {}", key, value, item.getType());
     }
     
     /**
@@ -112,15 +197,60 @@ public class NBTUtil {
      * @return The value or null if not found
      */
     public String getCustomData(ItemStack item, String key) {
-        if (item == null || key == null) return null;
+        if (key == null) return null;
         
-        ItemMeta meta = item.getItemMeta();
-        if (meta == null) return null;
+        ItemData data = read(item);
+        return data != null ? data.getCustomData(key) : null;
+    }
+    
+    /**
+     * ItemX data read from one meta snapshot. Later changes to the item are not reflected.
+     */
+    public final class ItemData {
+        private final PersistentDataContainer container;
         
-        String namespacePrefix = plugin.getConfig().getString("nbt.namespace-prefix", "itemx");
-        NamespacedKey namespacedKey = NamespacedKey.fromString(namespacePrefix + ":" + key);
+        private ItemData(PersistentDataContainer container) {
+            this.container = container;
+        }
         
-        PersistentDataContainer container = meta.getPersistentDataContainer();
-        return container.get(namespacedKey, PersistentDataType.STRING);
+        public String getItemId() {
+            return container.get(itemIdKey, PersistentDataType.STRING);
+        }
+        
+        public boolean hasItemId() {
+            return container.has(itemIdKey, PersistentDataType.STRING);
+        }
+        
+        /**
+         * The definition revision the item was built from, or 0 if it predates revision stamping
+         */
+        public long getRevision() {
+            Long revision = container.get(revisionKey, PersistentDataType.LONG);
+            return revision != null ? revision : 0L;
+        }
+        
+        public String getCustomData(String key) {
+            NamespacedKey namespacedKey = getCustomKey(key);
+            return namespacedKey != null ? container.get(namespacedKey, PersistentDataType.STRING) : null;
+        }
+        
+        /**
+         * Read several custom keys at once
+         * @return Values keyed by the given key names; keys without a value are left out
+         */
+        public Map<String, String> getCustomData(Collection<String> keys) {
+            Map<String, String> values = new LinkedHashMap<>();
+            for (String key : keys) {
+                String value = getCustomData(key);
+                if (value != null) {
+                    values.put(key, value);
+                }
+            }
+            return values;
+        }
+        
+        public PersistentDataContainer getContainer() {
+            return container;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,187 @@
+package com.itemx.util;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import com.itemx.ItemX;
+import com.itemx.item.ItemDefinition;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * The single-pass conversion and the direct component builder must produce exactly what the original
+ * regex and replace based conversion did, for every name and lore line of the bundled example items
+ * and for the inputs where a hand-written scanner is most likely to drift from it.
+ */
+class ColorUtilTest {
+
+    private static final List<String> EDGE_CASES = List.of(
+            // A lone or doubled ampersand
+            "Trailing &",
+            "&",
+            "&&aGreen after a literal ampersand",
+            "&&&&a&",
+            // Short, invalid and mixed-case hex
+            "&#12345 is too short",
+            "&#12345",
+            "&#GGGGGG is not hex",
+            "&#aBcDeFMixed case hex",
+            "&#ff0048lower &#FF0048upper",
+            // Upper-case legacy codes and codes that are not codes
+            "&LBold &AGreen &FWhite &OItalic",
+            "&x &z &g &# stay literal",
+            // Resets part way through
+            "&6Gold &lbold &rreset &7gray",
+            "&c&lRed bold&r plain &r&r twice",
+            // Hex followed directly by legacy codes, and back to back
+            "&#FF0048&lBold hex",
+            "&#FF0048&r&#00FF00After reset",
+            "&#FFFFFF&#000000&kSecret",
+            // Plain text that decides whether <!italic> is added
+            "&7Right click to use",
+            "Hover over it",
+            "&#123456Click and hover",
+            "Rainbow transition gradient color: words"
+    );
+
+    private static ItemX plugin;
+    private static ColorUtil colorUtil;
+    private static List<String> exampleTexts;
+    private static List<String> texts;
+
+    @BeforeAll
+    static void setUp() {
+        MockBukkit.mock();
+        plugin = MockBukkit.load(ItemX.class);
+        colorUtil = plugin.getColorUtil();
+
+        exampleTexts = new ArrayList<>();
+        for (ItemDefinition definition : plugin.getItemManager().getCatalog().getDefinitions()) {
+            exampleTexts.add(definition.getName());
+            if (definition.getLore() != null) {
+                exampleTexts.addAll(definition.getLore());
+            }
+        }
+        texts = new ArrayList<>(exampleTexts);
+        texts.addAll(EDGE_CASES);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    @Test
+    void examplesAreLoaded() {
+        assertFalse(exampleTexts.isEmpty(), "No example items were created");
+    }
+
+    @Test
+    void parseColorMatchesOriginal() {
+        for (String text : texts) {
+            assertEquals(OriginalColorUtil.parseColor(text), colorUtil.parseColor(text), text);
+        }
+    }
+
+    @Test
+    void parseLegacyMatchesOriginal() {
+        for (String text : texts) {
+            assertEquals(OriginalColorUtil.parseLegacy(text), colorUtil.parseLegacy(text), text);
+        }
+    }
+
+    @Test
+    void stripColorMatchesOriginal() {
+        for (String text : texts) {
+            assertEquals(OriginalColorUtil.stripColor(text), colorUtil.stripColor(text), text);
+        }
+    }
+
+    /**
+     * Equivalent to the conversion ColorUtil used before the single pass, as the reference. The duplicate
+     * no-op replace calls for digit codes, which have no upper case, are left out.
+     */
+    private static final class OriginalColorUtil {
+
+        private static final Pattern HEX_PATTERN = Pattern.compile("&#([A-Fa-f0-9]{6})");
+        private static final MiniMessage MINI_MESSAGE = MiniMessage.miniMessage();
+        private static final LegacyComponentSerializer LEGACY = LegacyComponentSerializer.legacyAmpersand();
+
+        static Component parseColor(String text) {
+            if (text == null || text.isEmpty()) {
+                return Component.empty();
+            }
+
+            text = convertLegacyCodes(convertHexCodes(text));
+            boolean hasComplexFormatting = text.contains("gradient") || text.contains("rainbow") ||
+                    text.contains("click") || text.contains("hover") ||
+                    text.contains("transition") || text.contains("color:");
+            if (!hasComplexFormatting && !text.contains("<!italic>")) {
+                text = "<!italic>" + text;
+            }
+            return MINI_MESSAGE.deserialize(text);
+        }
+
+        static String parseLegacy(String text) {
+            if (text == null || text.isEmpty()) {
+                return "";
+            }
+            return LEGACY.serialize(MINI_MESSAGE.deserialize(convertLegacyCodes(convertHexCodes(text))));
+        }
+
+        static String stripColor(String text) {
+            if (text == null || text.isEmpty()) {
+                return text;
+            }
+            return PlainTextComponentSerializer.plainText().serialize(MINI_MESSAGE.deserialize(convertLegacyCodes(convertHexCodes(text))));
+        }
+
+        private static String convertHexCodes(String text) {
+            Matcher matcher = HEX_PATTERN.matcher(text);
+            StringBuffer result = new StringBuffer();
+            while (matcher.find()) {
+                matcher.appendReplacement(result, "<color:#" + matcher.group(1) + ">");
+            }
+            matcher.appendTail(result);
+            return result.toString();
+        }
+
+        private static String convertLegacyCodes(String text) {
+            text = text.replace("&l", "<bold>").replace("&L", "<bold>");
+            text = text.replace("&o", "<italic>").replace("&O", "<italic>");
+            text = text.replace("&n", "<underlined>").replace("&N", "<underlined>");
+            text = text.replace("&m", "<strikethrough>").replace("&M", "<strikethrough>");
+            text = text.replace("&k", "<obfuscated>").replace("&K", "<obfuscated>");
+            text = text.replace("&r", "<reset>").replace("&R", "<reset>");
+
+            text = text.replace("&0", "<black>");
+            text = text.replace("&1", "<dark_blue>");
+            text = text.replace("&2", "<dark_green>");
+            text = text.replace("&3", "<dark_aqua>");
+            text = text.replace("&4", "<dark_red>");
+            text = text.replace("&5", "<dark_purple>");
+            text = text.replace("&6", "<gold>");
+            text = text.replace("&7", "<gray>");
+            text = text.replace("&8", "<dark_gray>");
+            text = text.replace("&9", "<blue>");
+            text = text.replace("&a", "<green>").replace("&A", "<green>");
+            text = text.replace("&b", "<aqua>").replace("&B", "<aqua>");
+            text = text.replace("&c", "<red>").replace("&C", "<red>");
+            text = text.replace("&d", "<light_purple>").replace("&D", "<light_purple>");
+            text = text.replace("&e", "<yellow>").replace("&E", "<yellow>");
+            text = text.replace("&f", "<white>").replace("&F", "<white>");
+            return text;
+        }
+    }
+}